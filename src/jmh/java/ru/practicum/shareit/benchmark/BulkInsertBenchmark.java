@@ -0,0 +1,119 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.load.BenchmarkApplication;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость массовой вставки броней, в строках в секунду, при текущих настройках batch_size=50.
+ *
+ * <p>ids=identity вставляет {@link IdentityBooking} — ту же бронь с прежним IDENTITY-ключом. Hibernate
+ * узнаёт такой ключ только после вставки, поэтому каждая строка уходит отдельным запросом, несмотря
+ * на batch_size. ids=sequence вставляет {@link Booking}: ключи выдаёт последовательность с шагом 50,
+ * а вставки идут JDBC-пачками. На H2 в памяти запрос почти ничего не стоит и режимы идут вровень;
+ * разница видна на Postgres, где у каждого запроса есть сетевая задержка:
+ * {@code -Dbench.datasource.url=jdbc:postgresql://localhost:5432/shareit?reWriteBatchedInserts=true ...}
+ * (см. {@link BenchmarkApplication}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+    static final int ROWS = 1000;
+
+    private static final String CREATE_IDENTITY_TABLE = "CREATE TABLE IF NOT EXISTS " + IdentityBooking.TABLE + " ("
+            + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL, "
+            + "end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL, "
+            + "item_id BIGINT NOT NULL REFERENCES item(id), "
+            + "booker_id BIGINT NOT NULL REFERENCES users(id), "
+            + "owner_id BIGINT NOT NULL, "
+            + "status VARCHAR(20) NOT NULL, "
+            + "version BIGINT NOT NULL)";
+
+    @Param({"identity", "sequence"})
+    String ids;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+    Long ownerId;
+    Long bookerId;
+    int itemId;
+    LocalDateTime nextStart = LocalDateTime.now().plusYears(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bulk-insert-" + ids, Map.of(
+                "spring.main.web-application-type", "none"));
+        context.getBean(JdbcTemplate.class).execute(CREATE_IDENTITY_TABLE);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = userRepository.save(User.builder().name("Владелец").email("owner@bench.ru").build());
+            ownerId = owner.getId();
+            bookerId = userRepository.save(User.builder().name("Арендатор").email("booker@bench.ru").build()).getId();
+            itemId = itemRepository.save(Item.builder()
+                    .name("Дрель")
+                    .description("Аккумуляторная дрель")
+                    .available(true)
+                    .owner(owner)
+                    .build()).getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insert() {
+        return transactionTemplate.execute(status -> {
+            User booker = entityManager.getReference(User.class, bookerId);
+            Item item = entityManager.getReference(Item.class, itemId);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(ids.equals("identity")
+                        ? IdentityBooking.builder()
+                                .start(nextStart)
+                                .end(nextStart.plusHours(1))
+                                .item(item)
+                                .booker(booker)
+                                .ownerId(ownerId)
+                                .status(BookingStatus.WAITING)
+                                .build()
+                        : Booking.builder()
+                                .start(nextStart)
+                                .end(nextStart.plusHours(1))
+                                .item(item)
+                                .booker(booker)
+                                .status(BookingStatus.WAITING)
+                                .build());
+                nextStart = nextStart.plusHours(2);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return ROWS;
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Копия {@link ru.practicum.shareit.booking.model.Booking} с прежним IDENTITY-ключом, только для
+ * {@link BulkInsertBenchmark}. Таблицу создаёт сам бенчмарк, в миграциях её нет.
+ */
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@EqualsAndHashCode(of = {"id"})
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = IdentityBooking.TABLE)
+public class IdentityBooking {
+    static final String TABLE = "bench_booking_identity";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, updatable = false)
+    Long id;
+
+    @Column(name = "start_date", nullable = false)
+    LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id")
+    @ToString.Exclude
+    User booker;
+
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    Long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    BookingStatus status;
+
+    @Version
+    @Column(nullable = false)
+    Long version;
+}
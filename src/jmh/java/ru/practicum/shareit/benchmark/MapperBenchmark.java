@@ -0,0 +1,104 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.web.SparseFields;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость маппинга сущностей в DTO и сериализации списка бронирований в JSON, без базы данных.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1000"})
+    int listSize;
+
+    Booking booking;
+    Item item;
+    Comment comment;
+    List<BookingDto> bookingDtos;
+    ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        User owner = User.builder().id(1L).name("Владелец").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("Арендатор").email("booker@mail.ru").build();
+        item = Item.builder()
+                .id(1)
+                .name("Дрель")
+                .description("Аккумуляторная дрель с двумя батареями")
+                .available(true)
+                .owner(owner)
+                .build();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        booking = Booking.builder()
+                .id(1L)
+                .start(start)
+                .end(start.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        comment = Comment.builder()
+                .id(1L)
+                .item(item)
+                .author(booker)
+                .text("Отличная дрель, всё просверлила")
+                .created(start.plusDays(3))
+                .build();
+        bookingDtos = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            bookingDtos.add(BookingMapper.mapToBookingDto(booking));
+        }
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(new SimpleFilterProvider()
+                        .addFilter(SparseFields.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+    }
+
+    @Benchmark
+    public BookingDto mapToBookingDto() {
+        return BookingMapper.mapToBookingDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto mapToItemDto() {
+        return ItemMapper.mapToItemDto(item);
+    }
+
+    @Benchmark
+    public CommentDto mapToCommentDto() {
+        return CommentMapper.mapToCommentDto(comment);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookingDtos);
+    }
+}
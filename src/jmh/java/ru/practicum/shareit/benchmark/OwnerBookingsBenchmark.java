@@ -0,0 +1,124 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.load.BenchmarkApplication;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Первая страница броней владельца: фильтр через соединение с item (как было до колонки booking.owner_id)
+ * против фильтра по owner_id в самой брони. Запросы отличаются только условием WHERE, проекция и сортировка
+ * те же, что в {@link BookingRepository}. Владельцев много, поэтому при соединении базе приходится сначала
+ * собрать все брони всех вещей владельца и только потом отсортировать их и отрезать страницу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OwnerBookingsBenchmark {
+    private static final String JOINED = "i.owner.id = :ownerId";
+    private static final String DENORMALIZED = "b.ownerId = :ownerId";
+
+    @Param({"joined", "denormalized"})
+    String plan;
+
+    @Param({"all", "waiting"})
+    String filter;
+
+    @Param({"50"})
+    int owners;
+
+    @Param({"20"})
+    int itemsPerOwner;
+
+    @Param({"50"})
+    int bookingsPerItem;
+
+    ConfigurableApplicationContext context;
+    EntityManager entityManager;
+    String query;
+    Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("owner-bookings-" + plan + "-" + filter, Map.of(
+                "spring.main.web-application-type", "none"));
+        entityManager = context.getBean(EntityManager.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> seed(context.getBean(UserRepository.class),
+                        context.getBean(ItemRepository.class), context.getBean(BookingRepository.class)));
+        query = BookingRepository.SELECT_VIEW + " WHERE " + ("joined".equals(plan) ? JOINED : DENORMALIZED)
+                + ("waiting".equals(filter) ? " AND b.status IN :statuses" : "")
+                + BookingRepository.AFTER_CURSOR;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingView> firstOwnerPage() {
+        TypedQuery<BookingView> page = entityManager.createQuery(query, BookingView.class)
+                .setParameter("ownerId", ownerId)
+                .setParameter("cursorStart", LocalDateTime.of(9999, 12, 31, 23, 59, 59))
+                .setParameter("cursorId", Long.MAX_VALUE)
+                .setMaxResults(21);
+        if ("waiting".equals(filter)) {
+            page.setParameter("statuses", List.of(BookingStatus.WAITING));
+        }
+        return page.getResultList();
+    }
+
+    private void seed(UserRepository userRepository, ItemRepository itemRepository,
+                      BookingRepository bookingRepository) {
+        User booker = userRepository.save(User.builder().name("Арендатор").email("booker@bench.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int o = 0; o < owners; o++) {
+            User owner = userRepository.save(User.builder().name("Владелец " + o).email("owner" + o + "@bench.ru")
+                    .build());
+            if (ownerId == null) {
+                ownerId = owner.getId();
+            }
+            List<Booking> bookings = new ArrayList<>(itemsPerOwner * bookingsPerItem);
+            for (int i = 0; i < itemsPerOwner; i++) {
+                Item item = itemRepository.save(Item.builder()
+                        .name("Вещь " + i)
+                        .description("Описание вещи " + i)
+                        .available(true)
+                        .owner(owner)
+                        .build());
+                for (int j = 0; j < bookingsPerItem; j++) {
+                    LocalDateTime start = now.plusDays(2L * (j - bookingsPerItem / 2));
+                    bookings.add(Booking.builder()
+                            .start(start)
+                            .end(start.plusDays(1))
+                            .item(item)
+                            .booker(booker)
+                            .status(j % 4 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED)
+                            .build());
+                }
+            }
+            bookingRepository.saveAll(bookings);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.web.SparseFields;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация страницы из 1000 бронирований в полном (по умолчанию) и компактном
+ * ({@code fields=compact}) представлениях. Размер тела ответа в байтах печатается при старте
+ * каждого варианта, время сериализации — результат бенчмарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+    @Param({"1000"})
+    int listSize;
+
+    @Param({SparseFields.ALL, SparseFields.COMPACT})
+    String fields;
+
+    List<BookingDto> bookingDtos;
+    ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        User owner = User.builder().id(1L).name("Владелец").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("Арендатор").email("booker@mail.ru").build();
+        Item item = Item.builder()
+                .id(1)
+                .name("Дрель")
+                .description("Аккумуляторная дрель с двумя батареями")
+                .available(true)
+                .owner(owner)
+                .build();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        bookingDtos = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            bookingDtos.add(BookingMapper.mapToBookingDto(Booking.builder()
+                    .id((long) i)
+                    .start(start.minusDays(i))
+                    .end(start.minusDays(i).plusHours(4))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build()));
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(new SimpleFilterProvider()
+                        .addFilter(SparseFields.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+        MappingJacksonValue value = SparseFields.apply(bookingDtos, fields, BookingController.COMPACT_FIELDS);
+        writer = value.getFilters() == null ? objectMapper.writer() : objectMapper.writer(value.getFilters());
+        System.out.printf("%nfields=%s: %d байт%n", fields, writer.writeValueAsBytes(bookingDtos).length);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookingDtos);
+    }
+}
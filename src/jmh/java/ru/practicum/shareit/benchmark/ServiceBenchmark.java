@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.load.BenchmarkApplication;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути сервисного слоя на заполненной H2: список вещей владельца с деталями
+ * и первая страница бронирований владельца.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+    @Param({"50"})
+    int itemsPerOwner;
+
+    @Param({"20"})
+    int bookingsPerItem;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    BookingService bookingService;
+    Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("service-benchmark", Map.of(
+                "spring.main.web-application-type", "none"));
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> seed(context.getBean(UserRepository.class),
+                        context.getBean(ItemRepository.class), context.getBean(BookingRepository.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemsForOwner() {
+        return itemService.getItemsForOwner(ownerId);
+    }
+
+    @Benchmark
+    public BookingPage findAllBookingsByOwnerId() {
+        return bookingService.findAllBookingsByOwnerId(ownerId, BookingState.ALL, null, 20);
+    }
+
+    private void seed(UserRepository userRepository, ItemRepository itemRepository,
+                      BookingRepository bookingRepository) {
+        User owner = userRepository.save(User.builder().name("Владелец").email("owner@bench.ru").build());
+        User booker = userRepository.save(User.builder().name("Арендатор").email("booker@bench.ru").build());
+        ownerId = owner.getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < itemsPerOwner; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Вещь " + i)
+                    .description("Описание вещи " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 0; j < bookingsPerItem; j++) {
+                LocalDateTime start = now.plusDays(2L * (j - bookingsPerItem / 2));
+                bookings.add(Booking.builder()
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .item(item)
+                        .booker(booker)
+                        .status(BookingStatus.APPROVED)
+                        .build());
+            }
+        }
+        bookingRepository.saveAll(bookings);
+    }
+}
@@ -0,0 +1,44 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Переводит базовую схему на то, чего ждут сущности: ключи из последовательностей с шагом 50 вместо
+ * IDENTITY, колонки version для оптимистичных блокировок и индекс броней вещи по дате начала.
+ *
+ * <p>Миграция на Java, потому что начало каждой последовательности зависит от уже выданных id, а задать
+ * его выражением одинаково для PostgreSQL и H2 в SQL нельзя. Последовательность стартует с
+ * {@code max(id) + 50}: оптимизатор pooled берёт первое значение как верхнюю границу пачки из 50 id,
+ * так что первый выданный id — {@code max(id) + 1}.
+ */
+public class V1_1__sequence_ids extends BaseJavaMigration {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of("users", "request", "item", "comment", "booking");
+    private static final List<String> VERSIONED_TABLES = List.of("users", "item", "booking");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                long maxId;
+                try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + (maxId + ALLOCATION_SIZE)
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+            for (String table : VERSIONED_TABLES) {
+                statement.execute("ALTER TABLE " + table + " ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            }
+            statement.execute("CREATE INDEX idx_booking_item_start ON booking (item_id, start_date)");
+        }
+    }
+}
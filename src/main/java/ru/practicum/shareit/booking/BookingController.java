@@ -1,23 +1,49 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.web.ETags;
+import ru.practicum.shareit.web.SparseFields;
 
+import java.io.IOException;
 import java.util.List;
 
+@Validated
 @RestController
 @RequestMapping(path = "/bookings")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_BATCH_SIZE = 500;
+    /**
+     * Компактное представление списков ({@code fields=compact}): вещь и арендатор только ссылками.
+     */
+    public static final String COMPACT_FIELDS = "id,start,end,status,booker.id,item.id,item.name";
+
     BookingService bookingService;
+    BookingExporter bookingExporter;
 
     @PostMapping
     public BookingDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -25,19 +51,66 @@ public class BookingController {
         return bookingService.create(userId, newBookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                   List<NewBookingDto> newBookings) {
+        return bookingService.createBatch(userId, newBookings);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> updateStatusBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestParam(name = "approved") Boolean approved,
+                                                         @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                         List<Long> bookingIds) {
+        return bookingService.updateStatusBatch(userId, bookingIds, approved);
+    }
+
     @GetMapping
-    public List<BookingDto> getAllBookingsForBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.findAllBookingsByBookerId(userId, state);
+    public ResponseEntity<MappingJacksonValue> getAllBookingsForBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                       @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "20")
+                                                                       @Positive @Max(100) int size,
+                                                                       @RequestParam(required = false) String fields) {
+        return toResponse(bookingService.findAllBookingsByBookerId(userId, state, cursor, size), fields);
     }
 
+    /**
+     * Тег считается, только если клиент прислал If-None-Match: проверки и чтение счётчика для него стоят
+     * отдельных запросов, а без условного запроса страница обходится одним. В ответ на условный запрос
+     * тег отдаётся в ETag и при 200, так что клиент, начавший пользоваться тегами, получает их дальше.
+     */
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.findAllBookingsByOwnerId(userId, state);
+    public ResponseEntity<MappingJacksonValue> getAllBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                      @RequestParam(defaultValue = "ALL") BookingState state,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "20")
+                                                                      @Positive @Max(100) int size,
+                                                                      @RequestParam(required = false) String fields,
+                                                                      WebRequest request) {
+        String version = request.getHeader(HttpHeaders.IF_NONE_MATCH) == null ? null
+                : bookingService.getOwnerBookingsVersion(userId, state, cursor);
+        if (version != null && request.checkNotModified(ETags.of(version, state, cursor, size, fields))) {
+            return null;
+        }
+        return toResponse(bookingService.findAllBookingsByOwnerId(userId, state, cursor, size), fields);
     }
 
 
+    @GetMapping("/owner/export")
+    public void exportAllBookingsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                          @RequestParam(defaultValue = "ndjson") String format,
+                                          HttpServletResponse response) throws IOException {
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        bookingExporter.validateOwner(userId);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bookings." + exportFormat.getExtension() + "\"");
+        bookingExporter.export(userId, exportFormat, response.getOutputStream());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                      @PathVariable("bookingId") Long bookingId) {
@@ -50,4 +123,12 @@ public class BookingController {
                                           @RequestParam(name = "approved", required = true) Boolean approved) {
         return bookingService.updateStatusBooking(userId, bookingId, approved);
     }
+
+    private ResponseEntity<MappingJacksonValue> toResponse(BookingPage page, String fields) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(SparseFields.apply(page.getBookings(), fields, COMPACT_FIELDS));
+    }
 }
\ No newline at end of file
@@ -3,11 +3,16 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
+import java.util.Collections;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
     public static BookingDto mapToBookingDto(Booking booking) {
@@ -21,6 +26,31 @@ public class BookingMapper {
                 .build();
     }
 
+    /**
+     * Собирает DTO из проекции списка без обращения к сущностям; у вещи в списке броней
+     * нет комментариев, поэтому вместо нового списка на каждую строку используется общий пустой.
+     */
+    public static BookingDto mapToBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .booker(UserDto.builder()
+                        .id(Math.toIntExact(booking.getBookerId()))
+                        .name(booking.getBookerName())
+                        .email(booking.getBookerEmail())
+                        .build())
+                .item(ItemDto.builder()
+                        .id(booking.getItemId().longValue())
+                        .name(booking.getItemName())
+                        .description(booking.getItemDescription())
+                        .available(booking.getItemAvailable())
+                        .comments(Collections.emptyList())
+                        .build())
+                .build();
+    }
+
     public static Booking mapToNewBooking(NewBookingDto newBookingDto) {
         return Booking.builder()
                 .start(newBookingDto.getStart())
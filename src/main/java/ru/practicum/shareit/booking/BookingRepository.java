@@ -1,39 +1,206 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.availability.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId);
+    /**
+     * Условие поиска по ключу (start, id): следующая страница начинается строго после курсора,
+     * поэтому стоимость запроса не зависит от того, насколько глубоко клиент пролистал историю.
+     */
+    String AFTER_CURSOR = " AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))" +
+            " ORDER BY b.start DESC, b.id DESC";
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+    /**
+     * Проекция для списков броней: бронь, арендатор и вещь читаются одним запросом.
+     */
+    String SELECT_VIEW = "SELECT new ru.practicum.shareit.booking.dto.BookingView(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, u.email, i.id, i.name, i.description, i.available) " +
+            "FROM Booking b JOIN b.booker u JOIN b.item i";
 
-    List<Booking> findAllByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(Long ownerId,
-                                                                                                  LocalDateTime now1,
-                                                                                                  LocalDateTime now2);
+    @Query(SELECT_VIEW + " WHERE b.ownerId = :ownerId" + AFTER_CURSOR)
+    List<BookingView> findOwnerPage(@Param("ownerId") Long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable page);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now);
+    @Query(SELECT_VIEW + " WHERE b.ownerId = :ownerId AND b.status IN :statuses" + AFTER_CURSOR)
+    List<BookingView> findOwnerPageByStatusIn(@Param("ownerId") Long ownerId,
+                                              @Param("statuses") Collection<BookingStatus> statuses,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable page);
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now);
+    @Query(SELECT_VIEW + " WHERE b.ownerId = :ownerId AND b.start <= :now AND b.end >= :now" +
+            AFTER_CURSOR)
+    List<BookingView> findOwnerCurrentPage(@Param("ownerId") Long ownerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
 
+    @Query(SELECT_VIEW + " WHERE b.ownerId = :ownerId AND b.start > :now" + AFTER_CURSOR)
+    List<BookingView> findOwnerFuturePage(@Param("ownerId") Long ownerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable page);
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
+    @Query(SELECT_VIEW + " WHERE b.ownerId = :ownerId AND b.end < :now" + AFTER_CURSOR)
+    List<BookingView> findOwnerPastPage(@Param("ownerId") Long ownerId,
+                                        @Param("now") LocalDateTime now,
+                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable page);
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
 
-    List<Booking> findAllByBookerIdAndStatusInOrderByStartDesc(Long bookerId, List<BookingStatus> statuses);
+    @Query(SELECT_VIEW + " WHERE u.id = :bookerId" + AFTER_CURSOR)
+    List<BookingView> findBookerPage(@Param("bookerId") Long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable page);
 
-    List<Booking> findAllByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(Long bookerId,
-                                                                                               LocalDateTime now1,
-                                                                                               LocalDateTime now2);
+    @Query(SELECT_VIEW + " WHERE u.id = :bookerId AND b.status IN :statuses" + AFTER_CURSOR)
+    List<BookingView> findBookerPageByStatusIn(@Param("bookerId") Long bookerId,
+                                               @Param("statuses") Collection<BookingStatus> statuses,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable page);
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
+    @Query(SELECT_VIEW + " WHERE u.id = :bookerId AND b.start <= :now AND b.end >= :now" +
+            AFTER_CURSOR)
+    List<BookingView> findBookerCurrentPage(@Param("bookerId") Long bookerId,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable page);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
+    @Query(SELECT_VIEW + " WHERE u.id = :bookerId AND b.start > :now" + AFTER_CURSOR)
+    List<BookingView> findBookerFuturePage(@Param("bookerId") Long bookerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable page);
+
+    @Query(SELECT_VIEW + " WHERE u.id = :bookerId AND b.end < :now" + AFTER_CURSOR)
+    List<BookingView> findBookerPastPage(@Param("bookerId") Long bookerId,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable page);
+
+    @Query(SELECT_VIEW + " WHERE b.id = :bookingId")
+    BookingView findViewById(@Param("bookingId") Long bookingId);
 
     List<Booking> findAllByItemId(Long itemId);
-}
\ No newline at end of file
+
+    /**
+     * Интервалы броней вещи, которые ещё не закончились к моменту from.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.availability.BookingInterval(b.id, b.start, b.end) " +
+            "FROM Booking b WHERE b.item.id = :itemId AND b.status IN :statuses AND b.end > :from")
+    List<BookingInterval> findIntervalsEndingAfter(@Param("itemId") Integer itemId,
+                                                   @Param("statuses") Collection<BookingStatus> statuses,
+                                                   @Param("from") LocalDateTime from);
+
+    /**
+     * Интервалы броней вещи, пересекающиеся с [from, to). Условие на start_date ограничивает сверху
+     * просмотр индекса (item_id, status, start_date), так что окно в прошлом не читает всю историю вещи
+     * после него.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.availability.BookingInterval(b.id, b.start, b.end) " +
+            "FROM Booking b WHERE b.item.id = :itemId AND b.status IN :statuses " +
+            "AND b.start < :to AND b.end > :from")
+    List<BookingInterval> findIntervalsOverlapping(@Param("itemId") Integer itemId,
+                                                   @Param("statuses") Collection<BookingStatus> statuses,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    /**
+     * Возвращает id последнего завершённого и ближайшего будущего подтверждённого бронирования
+     * для каждой из переданных вещей. Для каждой вещи это подзапрос с ORDER BY start_date LIMIT 1
+     * по индексу (item_id, status, start_date): поиск начинается с момента now и читает одну-две
+     * строки, сколько бы броней ни было у вещи в прошлом и будущем (вторая — текущая бронь, которая
+     * началась, но ещё не закончилась).
+     */
+    @Query(value = "SELECT id FROM (" +
+            "SELECT (SELECT b.id FROM booking b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date < :now AND b.end_date < :now " +
+            "ORDER BY b.start_date DESC LIMIT 1) AS id " +
+            "FROM item i WHERE i.id IN (:itemIds) " +
+            "UNION ALL " +
+            "SELECT (SELECT b.id FROM booking b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date > :now " +
+            "ORDER BY b.start_date ASC LIMIT 1) AS id " +
+            "FROM item i WHERE i.id IN (:itemIds)" +
+            ") last_and_next WHERE id IS NOT NULL",
+            nativeQuery = true)
+    List<Long> findLastAndNextApprovedBookingIds(@Param("itemIds") Collection<Integer> itemIds,
+                                                 @Param("now") LocalDateTime now);
+
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start <= :now AND b.end >= :now")
+    List<Booking> findCurrentApprovedByItemIdIn(@Param("itemIds") Collection<Integer> itemIds,
+                                                @Param("now") LocalDateTime now);
+
+    /**
+     * Вещи, в сводках которых может стоять подтверждённая бронь арендатора.
+     */
+    @Query("SELECT DISTINCT b.item.id FROM Booking b WHERE b.booker.id = :bookerId " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED")
+    List<Integer> findApprovedItemIdsByBookerId(@Param("bookerId") Long bookerId);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker WHERE b.id IN :ids")
+    List<Booking> findAllWithBookerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.id IN :ids")
+    List<Booking> findAllWithItemForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Меняет статус ожидающих подтверждения броней на вещи владельца одним запросом.
+     * Чужие и уже рассмотренные брони условие отсекает, сколько бы id ни пришло. Из параллельных
+     * запросов на одну бронь строку меняет только первый: остальные после снятия блокировки строки
+     * уже не видят статус WAITING и получают 0 изменённых строк.
+     * Версия увеличивается вручную: массовый UPDATE проходит мимо {@code @Version}.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND b.ownerId = :ownerId")
+    int updateWaitingStatusByOwner(@Param("ids") Collection<Long> ids,
+                                   @Param("ownerId") Long ownerId,
+                                   @Param("status") BookingStatus status);
+
+    /**
+     * Все брони вещей владельца для выгрузки. Результат читается курсором порциями по 500 строк;
+     * сущности загружаются только для чтения и не попадают в кэш второго уровня.
+     * Вызывать внутри транзакции и закрывать поток после использования.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE b.ownerId = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByOwnerId(@Param("ownerId") Long ownerId);
+}
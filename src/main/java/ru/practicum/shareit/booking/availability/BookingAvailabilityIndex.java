@@ -0,0 +1,291 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Занятость вещей: для каждой вещи хранится дерево интервалов её ожидающих и подтверждённых броней.
+ * Дерево вещи загружается из базы при первом обращении и дальше поддерживается при создании брони
+ * и смене её статуса, поэтому проверка пересечения не требует запросов к базе.
+ *
+ * <p>Закончившиеся брони в дереве не держатся: новая бронь не может начаться в прошлом, поэтому
+ * с ними она не пересечётся. Занятость за прошедшие даты {@link #findBusy} дочитывает из базы.
+ * Деревья вещей, к которым не обращались дольше idle-timeout, выгружаются плановой задачей и при
+ * следующем обращении загружаются заново. Дерево с бронями, транзакции которых ещё не завершились,
+ * не выгружается: загруженное заново из базы, оно бы их не увидело.
+ */
+@Slf4j
+@Component
+public class BookingAvailabilityIndex {
+    static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final Comparator<BookingInterval> BY_START =
+            Comparator.comparing(BookingInterval::getStart).thenComparing(BookingInterval::getId);
+
+    private final BookingRepository bookingRepository;
+    private final long idleTimeoutNanos;
+    private final Map<Integer, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.availability.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.bookingRepository = bookingRepository;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Проверяет, что интервал [start, end) свободен, и под блокировкой вещи сохраняет бронь.
+     * Если транзакция будет откачена, интервал освобождается.
+     */
+    public Booking reserve(Integer itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> save) {
+        ItemTimeline timeline = lock(itemId);
+        try {
+            load(itemId, timeline);
+            if (timeline.tree.overlaps(start, end)) {
+                throw new ConflictException("Вещь уже забронирована на указанные даты");
+            }
+            Booking booking = save.get();
+            timeline.tree.insert(booking.getId(), start, end);
+            pending(timeline, booking.getId(), start);
+            return booking;
+        } finally {
+            timeline.lock.unlock();
+        }
+    }
+
+    /**
+     * Пакетный вариант {@link #reserve}: под блокировками всех затронутых вещей, взятыми в порядке id,
+     * отбирает брони, не пересекающиеся ни с уже сохранёнными, ни друг с другом, и сохраняет их
+     * одним вызовом save; после него у броней должны быть id.
+     *
+     * @return позиции в bookings тех броней, которые отклонены из-за пересечения
+     */
+    public BitSet reserveAll(List<Booking> bookings, Consumer<List<Booking>> save) {
+        List<Integer> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .sorted()
+                .toList();
+        Map<Integer, ItemTimeline> locked = new HashMap<>();
+        try {
+            for (Integer itemId : itemIds) {
+                ItemTimeline timeline = lock(itemId);
+                locked.put(itemId, timeline);
+                load(itemId, timeline);
+            }
+            BitSet conflicts = new BitSet();
+            List<Booking> accepted = new ArrayList<>();
+            Map<Integer, IntervalTree> batch = new HashMap<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                Integer itemId = booking.getItem().getId();
+                IntervalTree batchTree = batch.computeIfAbsent(itemId, id -> new IntervalTree());
+                if (locked.get(itemId).tree.overlaps(booking.getStart(), booking.getEnd())
+                        || batchTree.overlaps(booking.getStart(), booking.getEnd())) {
+                    conflicts.set(i);
+                } else {
+                    batchTree.insert(i, booking.getStart(), booking.getEnd());
+                    accepted.add(booking);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                save.accept(accepted);
+                for (Booking booking : accepted) {
+                    ItemTimeline timeline = locked.get(booking.getItem().getId());
+                    timeline.tree.insert(booking.getId(), booking.getStart(), booking.getEnd());
+                    pending(timeline, booking.getId(), booking.getStart());
+                }
+            }
+            return conflicts;
+        } finally {
+            locked.values().forEach(timeline -> timeline.lock.unlock());
+        }
+    }
+
+    /**
+     * Возвращает занятые интервалы вещи, пересекающиеся с [from, to), в порядке возрастания начала.
+     * Брони, закончившиеся после prunedBy, берутся из дерева. Если окно начинается раньше, из базы
+     * дочитываются только брони, пересекающиеся с [from, min(to, prunedBy)) и закончившиеся до prunedBy, —
+     * их в дереве уже нет.
+     */
+    public List<BookingInterval> findBusy(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        ItemTimeline timeline = lock(itemId);
+        try {
+            load(itemId, timeline);
+            List<BookingInterval> busy = new ArrayList<>();
+            timeline.tree.forEachOverlapping(from, to, busy::add);
+            LocalDateTime prunedBy = timeline.prunedBy;
+            if (from.isBefore(prunedBy)) {
+                LocalDateTime until = to.isBefore(prunedBy) ? to : prunedBy;
+                for (BookingInterval interval : bookingRepository.findIntervalsOverlapping(itemId,
+                        BLOCKING_STATUSES, from, until)) {
+                    if (!interval.getEnd().isAfter(prunedBy)) {
+                        busy.add(interval);
+                    }
+                }
+                busy.sort(BY_START);
+            }
+            return busy;
+        } finally {
+            timeline.lock.unlock();
+        }
+    }
+
+    public boolean isLoaded(Integer itemId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline != null && timeline.loaded;
+    }
+
+    /**
+     * Освобождает интервал брони после фиксации текущей транзакции.
+     */
+    public void release(Integer itemId, Long bookingId, LocalDateTime start) {
+        ItemTimeline timeline = timeline(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(timeline, bookingId, start);
+                }
+            });
+        } else {
+            remove(timeline, bookingId, start);
+        }
+    }
+
+    /**
+     * Выгружает деревья вещей, к которым давно не обращались, и убирает из остальных закончившиеся брони.
+     * Занятые в этот момент деревья пропускаются до следующего запуска.
+     */
+    @Scheduled(fixedDelayString = "${shareit.availability.evict-delay:PT5M}")
+    public void evictIdle() {
+        long idleSince = System.nanoTime() - idleTimeoutNanos;
+        LocalDateTime now = LocalDateTime.now();
+        int evicted = 0;
+        int pruned = 0;
+        for (Map.Entry<Integer, ItemTimeline> entry : timelines.entrySet()) {
+            ItemTimeline timeline = entry.getValue();
+            if (!timeline.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (timeline.pending == 0 && timeline.lastAccess - idleSince < 0) {
+                    timeline.evicted = true;
+                    timelines.remove(entry.getKey(), timeline);
+                    evicted++;
+                } else if (timeline.loaded) {
+                    pruned += timeline.pruneEndedBy(now);
+                }
+            } finally {
+                timeline.lock.unlock();
+            }
+        }
+        if (evicted > 0 || pruned > 0) {
+            log.debug("Выгружено деревьев занятости: {}, убрано закончившихся броней: {}", evicted, pruned);
+        }
+    }
+
+    /**
+     * Дерево вещи под её блокировкой. Если дерево успели выгрузить, пока поток ждал блокировку,
+     * берётся новое.
+     */
+    private ItemTimeline lock(Integer itemId) {
+        while (true) {
+            ItemTimeline timeline = timeline(itemId);
+            timeline.lock.lock();
+            if (!timeline.evicted) {
+                return timeline;
+            }
+            timeline.lock.unlock();
+        }
+    }
+
+    private ItemTimeline timeline(Integer itemId) {
+        ItemTimeline timeline = timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+        timeline.lastAccess = System.nanoTime();
+        return timeline;
+    }
+
+    private void load(Integer itemId, ItemTimeline timeline) {
+        if (timeline.loaded) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingInterval interval : bookingRepository.findIntervalsEndingAfter(itemId, BLOCKING_STATUSES, now)) {
+            timeline.tree.insert(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        timeline.prunedBy = now;
+        timeline.loaded = true;
+    }
+
+    private void remove(ItemTimeline timeline, Long bookingId, LocalDateTime start) {
+        timeline.lock.lock();
+        try {
+            timeline.tree.remove(bookingId, start);
+        } finally {
+            timeline.lock.unlock();
+        }
+    }
+
+    /**
+     * Держит дерево в памяти до завершения транзакции брони; если она откачена, интервал освобождается.
+     * Вызывается под блокировкой дерева.
+     */
+    private static void pending(ItemTimeline timeline, Long bookingId, LocalDateTime start) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        timeline.pending++;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                timeline.lock.lock();
+                try {
+                    if (status != STATUS_COMMITTED) {
+                        timeline.tree.remove(bookingId, start);
+                    }
+                    timeline.pending--;
+                } finally {
+                    timeline.lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Поля, кроме lastAccess и loaded, меняются и читаются под lock.
+     */
+    private static class ItemTimeline {
+        final ReentrantLock lock = new ReentrantLock();
+        final IntervalTree tree = new IntervalTree();
+        volatile boolean loaded;
+        volatile long lastAccess;
+        LocalDateTime prunedBy;
+        int pending;
+        boolean evicted;
+
+        int pruneEndedBy(LocalDateTime now) {
+            prunedBy = now;
+            return tree.removeEndedBy(now);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AVL-дерево полуоткрытых интервалов [start, end), упорядоченных по (start, id).
+ * Каждый узел хранит максимальный конец интервала в своём поддереве, что позволяет
+ * отвечать на вопрос о пересечении за O(log n).
+ */
+class IntervalTree {
+    private Node root;
+
+    void insert(long id, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(id, start, end));
+    }
+
+    void remove(long id, LocalDateTime start) {
+        root = remove(root, id, start);
+    }
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) {
+                return true;
+            }
+            // Если в левом поддереве есть интервал, заканчивающийся позже start, но не пересекающийся
+            // с запросом, то он начинается не раньше end, а значит и всё правое поддерево лежит правее.
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Передаёт в consumer интервалы, пересекающиеся с [from, to), в порядке возрастания начала.
+     */
+    void forEachOverlapping(LocalDateTime from, LocalDateTime to, Consumer<BookingInterval> consumer) {
+        forEachOverlapping(root, from, to, consumer);
+    }
+
+    /**
+     * Удаляет интервалы, закончившиеся не позже moment, и возвращает их число.
+     */
+    int removeEndedBy(LocalDateTime moment) {
+        List<Node> ended = new ArrayList<>();
+        collectEndedBy(root, moment, ended);
+        ended.forEach(node -> remove(node.id, node.start));
+        return ended.size();
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    private void collectEndedBy(Node node, LocalDateTime moment, List<Node> ended) {
+        if (node == null) {
+            return;
+        }
+        collectEndedBy(node.left, moment, ended);
+        if (!node.end.isAfter(moment)) {
+            ended.add(node);
+        }
+        // Правее лежат интервалы, начинающиеся не раньше, чем этот; закончиться к moment они могут,
+        // только если и начались до него.
+        if (node.start.isBefore(moment)) {
+            collectEndedBy(node.right, moment, ended);
+        }
+    }
+
+    private void forEachOverlapping(Node node, LocalDateTime from, LocalDateTime to,
+                                    Consumer<BookingInterval> consumer) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        forEachOverlapping(node.left, from, to, consumer);
+        if (node.start.isBefore(to)) {
+            if (node.end.isAfter(from)) {
+                consumer.accept(new BookingInterval(node.id, node.start, node.end));
+            }
+            forEachOverlapping(node.right, from, to, consumer);
+        }
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        int comparison = compare(inserted.start, inserted.id, node);
+        if (comparison < 0) {
+            node.left = insert(node.left, inserted);
+        } else if (comparison > 0) {
+            node.right = insert(node.right, inserted);
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long id, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (comparison > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int compare(LocalDateTime start, long id, Node node) {
+        int comparison = start.compareTo(node.start);
+        return comparison != 0 ? comparison : Long.compare(id, node.id);
+    }
+
+    private static final class Node {
+        final long id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.web.SparseFields;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFields.FILTER_ID)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка броней вместе с нужными для ответа полями арендатора и вещи,
+ * собирается одним запросом с JOIN вместо догрузки ленивых связей по каждой брони.
+ */
+@Value
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    Long bookerId;
+    String bookerName;
+    String bookerEmail;
+    Integer itemId;
+    String itemName;
+    String itemDescription;
+    Boolean itemAvailable;
+}
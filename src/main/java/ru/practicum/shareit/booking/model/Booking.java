@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 @Table(name = "booking")
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false)
     Long id;
 
@@ -42,7 +43,23 @@ public class Booking {
     @ToString.Exclude
     User booker;
 
+    /**
+     * Владелец вещи, скопированный в бронь: списки владельца фильтруются по нему без соединения с item.
+     * Заполняется при вставке, а при смене владельца вещи база обновляет его по составному внешнему ключу.
+     */
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    Long ownerId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     BookingStatus status;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    Long version;
+
+    @PrePersist
+    void fillOwnerId() {
+        ownerId = item.getOwner().getId();
+    }
+}
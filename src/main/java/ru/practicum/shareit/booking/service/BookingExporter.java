@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всей истории броней владельца. Брони читаются курсором базы
+ * ({@link BookingRepository#streamAllByOwnerId}) и пишутся в ответ по одной. Каждые
+ * {@link #CLEAR_INTERVAL} броней контекст персистентности очищается целиком — вместе с вещами
+ * и арендаторами, загруженными с бронями, — поэтому расход памяти не зависит от числа броней.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingExporter {
+    /**
+     * Совпадает с fetch size курсора выгрузки: контекст очищается раз на порцию строк из базы.
+     */
+    static final int CLEAR_INTERVAL = 500;
+    private static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id,booker_name";
+
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public void validateOwner(Long ownerId) {
+        userService.validateUserExist(ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long ownerId, BookingExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            switch (format) {
+                case NDJSON -> writeNdjson(iterator, out);
+                case CSV -> writeCsv(iterator, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<Booking> bookings, OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (int written = 1; bookings.hasNext(); written++) {
+                writer.write(BookingMapper.mapToBookingDto(bookings.next()));
+                clearEvery(written);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<Booking> bookings, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            for (int written = 1; bookings.hasNext(); written++) {
+                Booking booking = bookings.next();
+                writer.write(String.join(",",
+                        String.valueOf(booking.getId()),
+                        booking.getStart().toString(),
+                        booking.getEnd().toString(),
+                        booking.getStatus().name(),
+                        String.valueOf(booking.getItem().getId()),
+                        csvValue(booking.getItem().getName()),
+                        String.valueOf(booking.getBooker().getId()),
+                        csvValue(booking.getBooker().getName())));
+                writer.write('\n');
+                clearEvery(written);
+            }
+        }
+    }
+
+    private void clearEvery(int written) {
+        if (written % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
@@ -17,7 +19,25 @@ public interface BookingService {
     @Transactional
     BookingDto updateStatusBooking(Long userId, Long bookingId, boolean approved);
 
-    List<BookingDto> findAllBookingsByBookerId(Long bookerId, BookingState state);
+    /**
+     * Создаёт брони пакетом; записи проверяются по отдельности, отклонённые не мешают сохранению остальных.
+     */
+    @Transactional
+    List<BookingBatchResultDto> createBatch(Long userId, List<NewBookingDto> newBookings);
+
+    /**
+     * Подтверждает или отклоняет пакет ожидающих броней владельца одним запросом к базе.
+     */
+    @Transactional
+    List<BookingBatchResultDto> updateStatusBatch(Long userId, List<Long> bookingIds, boolean approved);
+
+    BookingPage findAllBookingsByBookerId(Long bookerId, BookingState state, String cursor, int size);
+
+    BookingPage findAllBookingsByOwnerId(Long ownerId, BookingState state, String cursor, int size);
 
-    List<BookingDto> findAllBookingsByOwnerId(Long ownerId, BookingState state);
+    /**
+     * Версия броней вещей владельца для ETag списка по счётчику владельца. {@code null} для состояний,
+     * зависящих от текущего времени, и для запросов, которые закончатся ошибкой.
+     */
+    String getOwnerBookingsVersion(Long ownerId, BookingState state, String cursor);
 }
\ No newline at end of file
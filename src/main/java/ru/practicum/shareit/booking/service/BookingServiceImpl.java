@@ -1,35 +1,64 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemSummaryUpdater;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.monitoring.MetricsConfig;
+import ru.practicum.shareit.user.OwnerVersion;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     BookingRepository bookingRepository;
     UserService userService;
     ItemRepository itemRepository;
+    BookingAvailabilityIndex availabilityIndex;
+    ItemSummaryUpdater itemSummaryUpdater;
+    OwnerVersionRepository ownerVersionRepository;
+    Validator validator;
 
     @Override
     public BookingDto create(Long userId, NewBookingDto newBookingDto) {
@@ -43,7 +72,10 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
-        return BookingMapper.mapToBookingDto(bookingRepository.save(booking));
+        Booking savedBooking = availabilityIndex.reserve(item.getId(), booking.getStart(), booking.getEnd(),
+                () -> bookingRepository.save(booking));
+        ownerVersionRepository.incrementBookingsByOwnerIdIn(List.of(item.getOwner().getId()));
+        return BookingMapper.mapToBookingDto(savedBooking);
     }
 
     @Override
@@ -52,102 +84,252 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.mapToBookingDto(booking);
     }
 
+    /**
+     * Статус меняется одним условным UPDATE с проверкой владельца и статуса WAITING. Если строка не изменилась,
+     * причина выясняется отдельным чтением: бронь не найдена, чужая или уже рассмотрена (в том числе
+     * параллельным запросом, который успел раньше). Ответ строится по одной проекции брони; при подтверждении
+     * сводка вещи и счётчики владельца меняются двумя UPDATE без чтения сводки, всего четыре запроса.
+     */
     @Override
     public BookingDto updateStatusBooking(Long userId, Long bookingId, boolean approved) {
-        Booking booking = validateBookingExist(bookingId);
-        Item item = booking.getItem();
-        if (!item.getOwner().getId().equals(userId)) {
-            throw new ForbiddenException("Данная вещь не принадлежит этому пользователю");
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateWaitingStatusByOwner(List.of(bookingId), userId, status) == 0) {
+            Booking booking = validateBookingExist(bookingId);
+            if (!booking.getOwnerId().equals(userId)) {
+                throw new ForbiddenException("Данная вещь не принадлежит этому пользователю");
+            }
+            throw new ConflictException(String.format("Бронь с id %d уже рассмотрена, статус %s",
+                    bookingId, booking.getStatus()));
         }
-
+        BookingView booking = bookingRepository.findViewById(bookingId);
         if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
+            itemSummaryUpdater.bookingsApproved(userId, List.of(booking.getItemId()));
         } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            ownerVersionRepository.incrementBookingsByOwnerIdIn(List.of(userId));
+            availabilityIndex.release(booking.getItemId(), bookingId, booking.getStart());
         }
-
-        booking = bookingRepository.save(booking);
         return BookingMapper.mapToBookingDto(booking);
     }
 
     @Override
-    public List<BookingDto> findAllBookingsByBookerId(Long bookerId, BookingState state) {
-        userService.validateUserExist(bookerId);
-        List<Booking> bookings;
+    public List<BookingBatchResultDto> createBatch(Long userId, List<NewBookingDto> newBookings) {
+        User booker = userService.validateUserExist(userId);
+        Map<Integer, Item> items = itemRepository.findAllByIdIn(newBookings.stream()
+                        .filter(Objects::nonNull)
+                        .map(NewBookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .map(Long::intValue)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[newBookings.size()];
+        List<Booking> candidates = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < newBookings.size(); i++) {
+            NewBookingDto newBooking = newBookings.get(i);
+            String error = validateBatchEntry(newBooking, items);
+            if (error != null) {
+                results[i] = BookingBatchResultDto.builder().index(i).error(error).build();
+                continue;
+            }
+            Booking booking = BookingMapper.mapToNewBooking(newBooking);
+            booking.setBooker(booker);
+            booking.setItem(items.get(newBooking.getItemId().intValue()));
+            booking.setStatus(BookingStatus.WAITING);
+            candidates.add(booking);
+            positions.add(i);
+        }
+
+        BitSet conflicts = availabilityIndex.reserveAll(candidates, bookingRepository::saveAll);
+        Set<Long> ownerIds = new HashSet<>();
+        for (int j = 0; j < candidates.size(); j++) {
+            if (!conflicts.get(j)) {
+                ownerIds.add(candidates.get(j).getItem().getOwner().getId());
+            }
+        }
+        if (!ownerIds.isEmpty()) {
+            ownerVersionRepository.incrementBookingsByOwnerIdIn(ownerIds);
+        }
+        for (int j = 0; j < candidates.size(); j++) {
+            int i = positions.get(j);
+            results[i] = conflicts.get(j)
+                    ? BookingBatchResultDto.builder().index(i).error("Вещь уже забронирована на указанные даты").build()
+                    : BookingBatchResultDto.builder().index(i).id(candidates.get(j).getId())
+                    .status(BookingStatus.WAITING).build();
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<BookingBatchResultDto> updateStatusBatch(Long userId, List<Long> bookingIds, boolean approved) {
+        userService.validateUserExist(userId);
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemForUpdateByIdIn(bookingIds.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingIds.size());
+        Set<Long> toUpdate = new HashSet<>();
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Long bookingId = bookingIds.get(i);
+            Booking booking = bookingId == null ? null : bookings.get(bookingId);
+            String error = null;
+            if (booking == null) {
+                error = String.format("Бронь с id %d не найдена.", bookingId);
+            } else if (!booking.getOwnerId().equals(userId)) {
+                error = "Данная вещь не принадлежит этому пользователю";
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                error = "Бронь уже рассмотрена";
+            } else if (!toUpdate.add(bookingId)) {
+                error = "Бронь уже указана в запросе";
+            }
+            results.add(error == null
+                    ? BookingBatchResultDto.builder().index(i).id(bookingId).status(status).build()
+                    : BookingBatchResultDto.builder().index(i).id(bookingId).error(error).build());
+        }
+
+        if (!toUpdate.isEmpty()) {
+            bookingRepository.updateWaitingStatusByOwner(toUpdate, userId, status);
+            if (approved) {
+                itemSummaryUpdater.bookingsApproved(userId, toUpdate.stream()
+                        .map(bookingId -> bookings.get(bookingId).getItem().getId())
+                        .collect(Collectors.toSet()));
+            } else {
+                ownerVersionRepository.incrementBookingsByOwnerIdIn(List.of(userId));
+                for (Long bookingId : toUpdate) {
+                    Booking booking = bookings.get(bookingId);
+                    availabilityIndex.release(booking.getItem().getId(), bookingId, booking.getStart());
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public BookingPage findAllBookingsByBookerId(Long bookerId, @MeterTag("state") BookingState state,
+                                                 String cursor, int size) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<BookingView> bookings;
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case BookingState.WAITING: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.WAITING));
+                bookings = bookingRepository.findBookerPageByStatusIn(bookerId, List.of(BookingStatus.WAITING),
+                        after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.REJECTED: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdAndStatusInOrderByStartDesc(bookerId, List.of(BookingStatus.REJECTED, BookingStatus.CANCELED)));
+                bookings = bookingRepository.findBookerPageByStatusIn(bookerId,
+                        List.of(BookingStatus.REJECTED, BookingStatus.CANCELED), after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.CURRENT: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(bookerId, now, now));
+                bookings = bookingRepository.findBookerCurrentPage(bookerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.FUTURE: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(bookerId, now));
+                bookings = bookingRepository.findBookerFuturePage(bookerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.PAST: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now));
+                bookings = bookingRepository.findBookerPastPage(bookerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.ALL: {
-                bookings = new ArrayList<>(bookingRepository.findAllByBookerIdOrderByStartDesc(bookerId));
+                bookings = bookingRepository.findBookerPage(bookerId, after.getStart(), after.getId(), page);
                 break;
             }
             default:
                 bookings = new ArrayList<>();
         }
-        return bookings.stream().map(BookingMapper::mapToBookingDto).toList();
+        if (bookings.isEmpty()) {
+            userService.validateUserExist(bookerId);
+        }
+        return toBookingPage(bookings, size);
     }
 
     @Override
-    public List<BookingDto> findAllBookingsByOwnerId(Long ownerId, BookingState state) {
-        userService.validateUserExist(ownerId);
-        List<Item> userItemsIds = itemRepository.findByOwnerIdOrderByIdAsc(ownerId);
-
-        if (userItemsIds.isEmpty()) {
-            throw new ValidationException("Этот запрос только для тех пользователей, которые имеют хотя бы 1 вещь");
-        }
-
-        List<Booking> bookings;
+    public BookingPage findAllBookingsByOwnerId(Long ownerId, @MeterTag("state") BookingState state,
+                                                String cursor, int size) {
+        BookingCursor after = BookingCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<BookingView> bookings;
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case BookingState.WAITING: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING));
+                bookings = bookingRepository.findOwnerPageByStatusIn(ownerId, List.of(BookingStatus.WAITING),
+                        after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.REJECTED: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED));
+                bookings = bookingRepository.findOwnerPageByStatusIn(ownerId, List.of(BookingStatus.REJECTED),
+                        after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.CURRENT: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(ownerId, now, now));
+                bookings = bookingRepository.findOwnerCurrentPage(ownerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.FUTURE: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now));
+                bookings = bookingRepository.findOwnerFuturePage(ownerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.PAST: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now));
+                bookings = bookingRepository.findOwnerPastPage(ownerId, now, after.getStart(), after.getId(), page);
                 break;
             }
             case BookingState.ALL: {
-                bookings = new ArrayList<>(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(ownerId));
+                bookings = bookingRepository.findOwnerPage(ownerId, after.getStart(), after.getId(), page);
                 break;
             }
             default:
                 bookings = new ArrayList<>();
         }
-        return bookings.stream()
+        if (bookings.isEmpty()) {
+            userService.validateUserExist(ownerId);
+            if (!itemRepository.existsByOwnerId(ownerId)) {
+                throw new ValidationException("Этот запрос только для тех пользователей, которые имеют хотя бы 1 вещь");
+            }
+        }
+        return toBookingPage(bookings, size);
+    }
+
+    /**
+     * Пользователь, курсор и наличие вещей проверяются до сравнения тегов: иначе клиент, повторивший
+     * If-None-Match после ошибки, получил бы 304 вместо неё.
+     */
+    @Override
+    public String getOwnerBookingsVersion(Long ownerId, BookingState state, String cursor) {
+        if (state == BookingState.CURRENT || state == BookingState.FUTURE || state == BookingState.PAST) {
+            return null;
+        }
+        userService.validateUserExist(ownerId);
+        BookingCursor.decode(cursor);
+        if (!itemRepository.existsByOwnerId(ownerId)) {
+            return null;
+        }
+        return ownerVersionRepository.findById(ownerId)
+                .map(OwnerVersion::getBookingsVersion)
+                .map(String::valueOf)
+                .orElse(null);
+    }
+
+    /**
+     * Репозиторий запрашивается с запасом в одну запись: если она пришла, значит есть следующая страница,
+     * и курсор на неё строится по последней отданной брони. Пользователь и наличие у владельца вещей
+     * проверяются, только если страница пустая: непустой результат уже доказывает и то, и другое,
+     * так что страница со списком стоит ровно один запрос к базе.
+     */
+    private BookingPage toBookingPage(List<BookingView> bookings, int size) {
+        List<BookingDto> bookingDtos = bookings.stream()
+                .limit(size)
                 .map(BookingMapper::mapToBookingDto)
                 .toList();
+        String nextCursor = bookings.size() > size ? BookingCursor.of(bookingDtos.getLast()).encode() : null;
+        return new BookingPage(bookingDtos, nextCursor);
     }
 
     private Booking validateBookingExist(Long bookingId) {
@@ -157,10 +339,10 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Booking validateBooking(Long userId, Long bookingId) {
-        User user = userService.validateUserExist(userId);
+        userService.validateUserExist(userId);
         Booking booking = validateBookingExist(bookingId);
         Item item = booking.getItem();
-        if (!booking.getBooker().equals(user) && !item.getOwner().equals(user)) {
+        if (!booking.getBooker().getId().equals(userId) && !item.getOwner().getId().equals(userId)) {
             throw new ForbiddenException("Данная бронь не имеет отношения к пользователю");
         }
 
@@ -173,6 +355,34 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * Проверяет запись пакета так же, как одиночное создание брони, но вместо исключения
+     * возвращает текст ошибки; null означает, что запись корректна.
+     */
+    private String validateBatchEntry(NewBookingDto newBooking, Map<Integer, Item> items) {
+        if (newBooking == null) {
+            return "Бронь не задана";
+        }
+        Set<ConstraintViolation<NewBookingDto>> violations = validator.validate(newBooking);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!newBooking.getEnd().isAfter(newBooking.getStart())) {
+            return "Неверные даты старта и окончания брони";
+        }
+        Item item = items.get(newBooking.getItemId().intValue());
+        if (item == null) {
+            return String.format("Предмет аренды с id %d не найден.", newBooking.getItemId());
+        }
+        if (!item.getAvailable()) {
+            return "Данная вещь не доступна для брони!";
+        }
+        return null;
+    }
+
     private Item validateItemExist(Long itemId) {
         return itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Предмет аренды с id %d не найден.", itemId)));
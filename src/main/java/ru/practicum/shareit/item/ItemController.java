@@ -1,13 +1,21 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.marker.Marker;
+import ru.practicum.shareit.web.ETags;
+import ru.practicum.shareit.web.SparseFields;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,9 +26,21 @@ import java.util.List;
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    private static final String NDJSON = "application/x-ndjson";
+    /**
+     * Компактный список вещей владельца ({@code fields=compact}): у последней и следующей брони только
+     * даты и арендатор, без повторного вложения самой вещи.
+     */
+    private static final String COMPACT_FIELDS = "id,name,description,available,comments,commentCount," +
+            "lastBooking.id,lastBooking.start,lastBooking.end,lastBooking.status,lastBooking.booker.id," +
+            "nextBooking.id,nextBooking.start,nextBooking.end,nextBooking.status,nextBooking.booker.id";
+
     @Autowired
     ItemService service;
 
+    @Autowired
+    ItemImporter importer;
+
     @PostMapping
     @Validated(Marker.OnCreate.class)
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long owner,
@@ -29,6 +49,16 @@ public class ItemController {
         return service.create(owner, itemDto);
     }
 
+    @PostMapping(path = "/import", consumes = NDJSON)
+    public void importItems(@RequestHeader("X-Sharer-User-Id") Long owner, InputStream body,
+                            HttpServletResponse response) throws IOException {
+        log.info("Запрос на импорт вещей пользователя id {}", owner);
+        importer.validateOwner(owner);
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        importer.importItems(owner, body, response.getOutputStream());
+    }
+
     @PatchMapping("/{id}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") long owner,
                           @Valid @RequestBody UpdateItemDto itemDto, @PathVariable("id") long id) {
@@ -37,15 +67,26 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("itemId") int itemId) {
+    public ItemDto getItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("itemId") int itemId,
+                           WebRequest request) {
         log.info("Запрос на получение вещи с id {}", itemId);
+        String version = service.getItemVersion(userId, Long.valueOf(itemId));
+        if (version != null && request.checkNotModified(ETags.of(version))) {
+            return null;
+        }
         return service.getItem(userId, Long.valueOf(itemId));
     }
 
     @GetMapping
-    public List<ItemDto> getItemsForOwner(@RequestHeader("X-Sharer-User-Id") Long owner) {
+    public MappingJacksonValue getItemsForOwner(@RequestHeader("X-Sharer-User-Id") Long owner,
+                                                @RequestParam(required = false) String fields,
+                                                WebRequest request) {
         log.info("Запрос на получение вещей пользователя id {}", owner);
-        return service.getItemsForOwner(owner);
+        String version = service.getItemsForOwnerVersion(owner);
+        if (version != null && request.checkNotModified(ETags.of(version, fields))) {
+            return null;
+        }
+        return SparseFields.apply(service.getItemsForOwner(owner), fields, COMPACT_FIELDS);
     }
 
     @GetMapping("/search")
@@ -54,6 +95,14 @@ public class ItemController {
         return service.itemSearch(text);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(@PathVariable("itemId") Long itemId,
+                                             @RequestParam LocalDateTime from,
+                                             @RequestParam LocalDateTime to) {
+        log.info("Запрос свободных интервалов вещи с id {} с {} по {}", itemId, from, to);
+        return service.getAvailability(itemId, from, to);
+    }
+
     @PostMapping("{id}/comment")
     public CommentDto addComment(@RequestHeader("X-Sharer-User-Id") Long owner,
                                  @PathVariable("id") Long
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.NewItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт вещей из NDJSON: каждая строка — один {@link NewItemDto}.
+ *
+ * <p>Строки читаются по одной, проверяются ограничениями Bean Validation и копятся в пачку
+ * из {@link #CHUNK_SIZE} записей, которая сохраняется отдельной транзакцией через
+ * {@link ItemService#createAll}. После каждой пачки результаты её строк сразу пишутся в ответ,
+ * а контекст персистентности запроса (он живёт до конца запроса из-за open-in-view) очищается,
+ * поэтому в памяти никогда не держится больше одной пачки, каким бы большим ни был файл.
+ * Ошибка сохранения пачки отмечается в результатах её строк и не прерывает импорт остальных.
+ *
+ * <p>Строка длиннее {@link #MAX_LINE_LENGTH} символов в память не читается: её начало отмечается ошибкой,
+ * остаток пропускается до перевода строки, и импорт продолжается со следующей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemImporter {
+    static final int CHUNK_SIZE = 500;
+    /**
+     * С запасом на экранирование: у корректной вещи название до 255 символов, а описание до 200.
+     */
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Проверяет владельца до того, как начать писать ответ, чтобы неизвестный пользователь получил 404.
+     */
+    public void validateOwner(Long userId) {
+        userService.validateUserExist(userId);
+    }
+
+    public void importItems(Long userId, InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            List<Entry> chunk = new ArrayList<>(CHUNK_SIZE);
+            long lineNumber = 0;
+            StringBuilder line = new StringBuilder();
+            while (readLine(reader, line)) {
+                lineNumber++;
+                if (line.length() > MAX_LINE_LENGTH) {
+                    chunk.add(Entry.failed(lineNumber, "Строка длиннее " + MAX_LINE_LENGTH + " символов"));
+                } else if (line.toString().isBlank()) {
+                    continue;
+                } else {
+                    chunk.add(parse(lineNumber, line.toString()));
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    save(userId, chunk, writer);
+                }
+            }
+            save(userId, chunk, writer);
+        }
+    }
+
+    /**
+     * Читает следующую строку в {@code line}, но не больше MAX_LINE_LENGTH + 1 символов: по лишнему символу
+     * вызывающий узнаёт, что строка слишком длинная, а её остаток пропускается. Возвращает false в конце потока.
+     */
+    private static boolean readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != -1 && c != '\n') {
+            if (line.length() <= MAX_LINE_LENGTH) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return true;
+    }
+
+    private Entry parse(long lineNumber, String line) {
+        NewItemDto itemDto;
+        try {
+            itemDto = objectMapper.readValue(line, NewItemDto.class);
+        } catch (JsonProcessingException e) {
+            return Entry.failed(lineNumber, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<NewItemDto>> violations = validator.validate(itemDto);
+        if (!violations.isEmpty()) {
+            return Entry.failed(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return new Entry(lineNumber, itemDto, null);
+    }
+
+    private void save(Long userId, List<Entry> chunk, SequenceWriter writer) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<NewItemDto> valid = chunk.stream()
+                .filter(entry -> entry.error() == null)
+                .map(Entry::itemDto)
+                .toList();
+        List<ItemDto> saved = List.of();
+        String chunkError = null;
+        if (!valid.isEmpty()) {
+            try {
+                saved = itemService.createAll(userId, valid);
+            } catch (RuntimeException e) {
+                // Текст исключения может содержать SQL и имена ограничений, поэтому клиенту уходит
+                // общее сообщение, а подробности — только в лог.
+                log.error("Не удалось сохранить пачку импорта вещей пользователя {}, строки {}–{}",
+                        userId, chunk.getFirst().line(), chunk.getLast().line(), e);
+                chunkError = "Не удалось сохранить вещь";
+            }
+        }
+        int savedIndex = 0;
+        for (Entry entry : chunk) {
+            ItemImportResultDto.ItemImportResultDtoBuilder result = ItemImportResultDto.builder().line(entry.line());
+            if (entry.error() != null) {
+                result.error(entry.error());
+            } else if (chunkError != null) {
+                result.error(chunkError);
+            } else {
+                result.id(saved.get(savedIndex++).getId());
+            }
+            writer.write(result.build());
+        }
+        writer.flush();
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    private record Entry(long line, NewItemDto itemDto, String error) {
+        static Entry failed(long line, String error) {
+            return new Entry(line, null, error);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -10,15 +12,36 @@ public interface ItemService {
     @Transactional
     ItemDto create(Long userId, NewItemDto itemDto);
 
+    /**
+     * Создаёт вещи пользователя одной транзакцией; вставки уходят пачками. Записи должны быть уже проверены.
+     */
+    @Transactional
+    List<ItemDto> createAll(Long userId, List<NewItemDto> itemDtos);
+
     @Transactional
     ItemDto update(Long userId, Long itemId, UpdateItemDto itemDto);
 
     ItemDto getItem(Long owner, Long itemId);
 
+    /**
+     * Версия карточки {@link #getItem} для ETag: версии вещи и её сводки. {@code null}, если вещи нет
+     * или сводка устарела и карточка будет собрана по исходным таблицам.
+     */
+    String getItemVersion(Long userId, Long itemId);
+
     List<ItemDto> getItemsForOwner(Long owner);
 
+    /**
+     * Версия списка {@link #getItemsForOwner} по счётчику владельца; {@code null}, если у владельца
+     * есть устаревшие сводки.
+     */
+    String getItemsForOwnerVersion(Long owner);
+
     List<ItemDto> itemSearch(String text);
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     @Transactional
     CommentDto addComment(Long userId, Long itemId, NewCommentDto commentDto);
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.availability.BookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ForbiddenException;
@@ -17,17 +19,27 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.NewCommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.monitoring.MetricsConfig;
+import ru.practicum.shareit.user.OwnerVersion;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.dto.ItemMapper.mapToItemDto;
@@ -37,22 +49,48 @@ import static ru.practicum.shareit.item.dto.ItemMapper.mapToNewItem;
 
 @Slf4j
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Кандидаты из поискового индекса догружаются пачками по столько id: список параметров запроса
+     * остаётся ограниченным (у драйвера PostgreSQL предел — 32767 параметров), а каждая пачка читается
+     * по первичному ключу.
+     */
+    static final int SEARCH_BATCH_SIZE = 1000;
+
+    /**
+     * Выше этого числа кандидатов (короткие и частые запросы) поиск по первичному ключу пачками
+     * медленнее одного прохода ILIKE по таблице, и сервис переходит на него. На миллионе вещей в H2
+     * поиск по индексу быстрее при ~28 тыс. кандидатов и уже медленнее при ~56 тыс.
+     */
+    static final int MAX_INDEX_CANDIDATES = 30_000;
 
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ObjectProvider<ItemSearchIndex> searchIndex;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ItemSummaryUpdater itemSummaryUpdater;
+    private final OwnerVersionRepository ownerVersionRepository;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserService userService,
                            BookingRepository bookingRepository,
-                           CommentRepository commentRepository) {
+                           CommentRepository commentRepository,
+                           ObjectProvider<ItemSearchIndex> searchIndex,
+                           BookingAvailabilityIndex availabilityIndex,
+                           ItemSummaryUpdater itemSummaryUpdater,
+                           OwnerVersionRepository ownerVersionRepository) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
+        this.searchIndex = searchIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.itemSummaryUpdater = itemSummaryUpdater;
+        this.ownerVersionRepository = ownerVersionRepository;
     }
 
     @Override
@@ -60,7 +98,27 @@ public class ItemServiceImpl implements ItemService {
         User owner = userService.validateUserExist(userId);
         Item item = mapToNewItem(itemDto);
         item.setOwner(owner);
-        return mapToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSummaryUpdater.created(List.of(savedItem.getId()));
+        searchIndex.ifAvailable(index -> index.index(savedItem));
+        return mapToItemDto(savedItem);
+    }
+
+    @Override
+    public List<ItemDto> createAll(Long userId, List<NewItemDto> itemDtos) {
+        User owner = userService.validateUserExist(userId);
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (NewItemDto itemDto : itemDtos) {
+            Item item = mapToNewItem(itemDto);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        List<Item> savedItems = itemRepository.saveAll(items);
+        itemSummaryUpdater.created(savedItems.stream().map(Item::getId).toList());
+        searchIndex.ifAvailable(index -> savedItems.forEach(index::index));
+        return savedItems.stream()
+                .map(ItemMapper::mapToItemDto)
+                .toList();
     }
 
     @Override
@@ -71,8 +129,10 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Предмет аренды не принадлежит данному пользователю");
         }
         updateItemFields(item, itemDto);
-        item = itemRepository.save(item);
-        return mapToItemDto(item);
+        Item savedItem = itemRepository.save(item);
+        ownerVersionRepository.incrementItemsAndBookings(userId);
+        searchIndex.ifAvailable(index -> index.index(savedItem));
+        return mapToItemDto(savedItem);
     }
 
     @Override
@@ -82,7 +142,7 @@ public class ItemServiceImpl implements ItemService {
 
         ItemDto itemDto = mapToItemDto(item);
 
-        loadDetails(itemDto);
+        loadDetails(List.of(itemDto));
 
         return itemDto;
     }
@@ -92,21 +152,94 @@ public class ItemServiceImpl implements ItemService {
         userService.validateUserExist(ownerId);
         List<ItemDto> itemDtos = itemRepository.findByOwnerIdOrderByIdAsc(ownerId).stream()
                 .map(ItemMapper::mapToItemDto)
-                .peek(this::loadDetails)
                 .collect(Collectors.toList());
+        loadDetails(itemDtos);
         return itemDtos;
     }
 
+    /**
+     * Вещь берётся из кэша второго уровня, сводка — по первичному ключу.
+     */
+    @Override
+    public String getItemVersion(Long userId, Long itemId) {
+        userService.validateUserExist(userId);
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            return null;
+        }
+        Long summaryVersion = itemSummaryUpdater.getFreshVersion(itemId.intValue());
+        return summaryVersion == null ? null : item.get().getVersion() + ":" + summaryVersion;
+    }
+
+    @Override
+    public String getItemsForOwnerVersion(Long ownerId) {
+        userService.validateUserExist(ownerId);
+        LocalDateTime now = LocalDateTime.now();
+        return ownerVersionRepository.findById(ownerId)
+                .filter(version -> !version.isItemsStale(now))
+                .map(OwnerVersion::getItemsVersion)
+                .map(String::valueOf)
+                .orElse(null);
+    }
+
 
     @Override
     public List<ItemDto> itemSearch(String text) {
         if (text == null || text.isEmpty() || text.isBlank()) {
             return Collections.emptyList();
         }
+        ItemSearchIndex index = searchIndex.getIfAvailable();
+        if (index != null && index.isReady()) {
+            Optional<List<Integer>> candidates = index.search(text);
+            if (candidates.isPresent() && candidates.get().size() <= MAX_INDEX_CANDIDATES) {
+                return loadCandidates(candidates.get(), text.toLowerCase(Locale.ROOT));
+            }
+        }
         return itemRepository.findItemsByNameOrDescription(text).stream()
                 .map(ItemMapper::mapToItemDto).toList();
     }
 
+    /**
+     * Кандидаты отсортированы по id, поэтому пачки идут по ключу подряд, а результат — по возрастанию id.
+     */
+    private List<ItemDto> loadCandidates(List<Integer> candidates, String query) {
+        List<ItemDto> found = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += SEARCH_BATCH_SIZE) {
+            List<Integer> batch = candidates.subList(from, Math.min(from + SEARCH_BATCH_SIZE, candidates.size()));
+            for (Item item : itemRepository.findAvailableByIdIn(batch)) {
+                if (item.getName().toLowerCase(Locale.ROOT).contains(query)
+                        || item.getDescription().toLowerCase(Locale.ROOT).contains(query)) {
+                    found.add(mapToItemDto(item));
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало интервала должно быть раньше его окончания");
+        }
+        if (!availabilityIndex.isLoaded(itemId.intValue())) {
+            validateItemExist(itemId);
+        }
+        List<FreeSlotDto> freeSlots = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingInterval busy : availabilityIndex.findBusy(itemId.intValue(), from, to)) {
+            if (busy.getStart().isAfter(freeFrom)) {
+                freeSlots.add(new FreeSlotDto(freeFrom, busy.getStart()));
+            }
+            if (busy.getEnd().isAfter(freeFrom)) {
+                freeFrom = busy.getEnd();
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            freeSlots.add(new FreeSlotDto(freeFrom, to));
+        }
+        return freeSlots;
+    }
+
     @Override
     public CommentDto addComment(Long userId, Long itemId, NewCommentDto commentDto) {
         Item item = validateItemExist(itemId);
@@ -118,7 +251,9 @@ public class ItemServiceImpl implements ItemService {
         comment.setAuthor(author);
         comment.setCreated(LocalDateTime.now());
 
-        return CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        CommentDto savedComment = CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        itemSummaryUpdater.commentAdded(item.getId(), savedComment);
+        return savedComment;
     }
 
     private Item validateItemExist(Long itemId) {
@@ -126,25 +261,19 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException(String.format("Предмет аренды с id %d не найден.", itemId)));
     }
 
-    @Transactional
-    private void loadDetails(ItemDto itemDto) {
-        List<Comment> comments = commentRepository.findAllByItemId((long) itemDto.getId());
-        itemDto.setComments(comments.stream()
-                .map(CommentMapper::mapToCommentDto)
+    /**
+     * Дополняет вещи сводками из item_summary: для одной вещи это поиск по первичному ключу,
+     * для списка — один запрос по ключам. Исходные таблицы читаются только для устаревших сводок.
+     */
+    private void loadDetails(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) {
+            return;
+        }
+        Map<Integer, ItemSummary> summaries = itemSummaryUpdater.getSummaries(itemDtos.stream()
+                .map(itemDto -> itemDto.getId().intValue())
                 .toList());
-
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc((long) itemDto.getId());
-
-        if (!bookings.isEmpty()) {
-            Booking nextBooking = bookings.get(0);
-            itemDto.setNextBooking(BookingMapper.mapToBookingDto(nextBooking));
-
-            if (bookings.size() > 1) {
-                Booking lastBooking = bookings.get(1);
-                itemDto.setLastBooking(BookingMapper.mapToBookingDto(lastBooking));
-            } else {
-                itemDto.setLastBooking(BookingMapper.mapToBookingDto(nextBooking));
-            }
+        for (ItemDto itemDto : itemDtos) {
+            ItemMapper.applySummary(itemDto, summaries.get(itemDto.getId().intValue()));
         }
     }
 
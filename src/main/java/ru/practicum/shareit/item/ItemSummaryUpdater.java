@@ -0,0 +1,195 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemSummaryRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает таблицу item_summary, из которой читаются карточки вещей.
+ *
+ * <p>Новый комментарий меняет сводку в своей же транзакции, без пересчёта. Подтверждение брони только
+ * помечает сводку устаревшей. Создание и отклонение броней сводку не трогают: в ней только подтверждённые
+ * брони, а новая бронь всегда ожидает подтверждения. Остальное — смена последней/следующей брони с течением
+ * времени — догоняется плановым пересчётом сводок, у которых наступил stale_at. Пока пересчёт не прошёл,
+ * {@link #getSummaries} считает такие сводки по исходным таблицам, так что карточка не бывает неверной.
+ * Имя автора хранится в сводке вместе с комментарием, поэтому смена имени помечает сводки вещей,
+ * которые он комментировал, устаревшими; удаление пользователя — ещё и сводки вещей, которые он бронировал.
+ * Каждое изменение сводок увеличивает счётчик списка вещей их владельцев ({@code OwnerVersion}).
+ */
+@Slf4j
+@Component
+public class ItemSummaryUpdater {
+    static final int REFRESH_BATCH_SIZE = 500;
+
+    private final ItemSummaryRepository summaryRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final OwnerVersionRepository ownerVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemSummaryUpdater(ItemSummaryRepository summaryRepository,
+                              CommentRepository commentRepository,
+                              BookingRepository bookingRepository,
+                              OwnerVersionRepository ownerVersionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.ownerVersionRepository = ownerVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Сводки вещей для показа. Актуальные читаются из таблицы по первичному ключу; устаревшие и
+     * отсутствующие считаются на лету и здесь не сохраняются. Устаревшие сохранит плановый пересчёт;
+     * отсутствующих он не видит — сводка создаётся вместе с вещью ({@link #created}), так что её нет
+     * только у вещей, добавленных в таблицу в обход сервиса, и они так и считаются при каждом показе.
+     */
+    public Map<Integer, ItemSummary> getSummaries(Collection<Integer> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, ItemSummary> summaries = new HashMap<>();
+        if (itemIds.size() == 1) {
+            Integer itemId = itemIds.iterator().next();
+            summaryRepository.findById(itemId).ifPresent(summary -> summaries.put(itemId, summary));
+        } else {
+            summaryRepository.findAllByItemIdIn(itemIds).forEach(summary -> summaries.put(summary.getItemId(), summary));
+        }
+        Map<Integer, ItemSummary> outdated = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId) || summaries.get(itemId).isStale(now))
+                .collect(Collectors.toMap(Function.identity(), ItemSummary::new));
+        if (!outdated.isEmpty()) {
+            fill(outdated, now);
+            summaries.putAll(outdated);
+        }
+        return summaries;
+    }
+
+    /**
+     * Версия сводки для ETag карточки; {@code null}, если сводки нет или она устарела.
+     */
+    public Long getFreshVersion(Integer itemId) {
+        return summaryRepository.findById(itemId)
+                .filter(summary -> !summary.isStale(LocalDateTime.now()))
+                .map(ItemSummary::getVersion)
+                .orElse(null);
+    }
+
+    public void created(Collection<Integer> itemIds) {
+        summaryRepository.saveAll(itemIds.stream().map(ItemSummary::new).toList());
+        ownerVersionRepository.incrementItemsByItemIdIn(itemIds);
+    }
+
+    public void commentAdded(Integer itemId, CommentDto comment) {
+        summaryRepository.findForUpdateByItemId(itemId).ifPresent(summary -> summary.addComment(comment));
+        ownerVersionRepository.incrementItemsByItemIdIn(List.of(itemId));
+    }
+
+    /**
+     * Подтверждённые брони владельца не вписываются в сводки их вещей, а помечают эти сводки устаревшими:
+     * два UPDATE, сколько бы броней ни подтвердили, а остальное досчитает плановый пересчёт.
+     */
+    public void bookingsApproved(Long ownerId, Collection<Integer> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        summaryRepository.markStaleByItemIdIn(itemIds, now);
+        ownerVersionRepository.incrementItemsAndBookingsWithStaleAt(ownerId, now);
+    }
+
+    public void authorRenamed(Long authorId) {
+        markStale(commentRepository.findItemIdsByAuthorId(authorId));
+    }
+
+    /**
+     * Вызывается до удаления пользователя: каскад удалит его комментарии и брони, на которые могут
+     * ссылаться сводки чужих вещей, поэтому такие сводки помечаются устаревшими.
+     */
+    public void userDeleted(Long userId) {
+        Set<Integer> itemIds = new HashSet<>(commentRepository.findItemIdsByAuthorId(userId));
+        itemIds.addAll(bookingRepository.findApprovedItemIdsByBookerId(userId));
+        markStale(itemIds);
+    }
+
+    /**
+     * Пересчитывает устаревшие сводки пачками по {@link #REFRESH_BATCH_SIZE}, каждую пачку в своей транзакции.
+     * Сводки пачки блокируются; занятые параллельным подтверждением брони или комментарием пропускаются
+     * до следующего запуска, поэтому пересчёт не конфликтует с ними по версии.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item-summary.refresh-delay:PT1M}")
+    public void refreshStale() {
+        int refreshed = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Integer> itemIds = summaryRepository.findStaleItemIds(now, PageRequest.of(0, REFRESH_BATCH_SIZE));
+                if (itemIds.isEmpty()) {
+                    return 0;
+                }
+                Map<Integer, ItemSummary> summaries = summaryRepository.findForUpdateSkipLockedByItemIdIn(itemIds)
+                        .stream()
+                        .filter(summary -> summary.isStale(now))
+                        .collect(Collectors.toMap(ItemSummary::getItemId, Function.identity()));
+                if (!summaries.isEmpty()) {
+                    fill(summaries, now);
+                    ownerVersionRepository.recalculateItemsByItemIdIn(summaries.keySet());
+                }
+                return summaries.size();
+            });
+            refreshed += batch;
+        } while (batch == REFRESH_BATCH_SIZE);
+        if (refreshed > 0) {
+            log.debug("Пересчитано сводок вещей: {}", refreshed);
+        }
+    }
+
+    /**
+     * Заполняет сводки по исходным таблицам: комментарии с авторами, последняя/следующая бронь и текущие
+     * брони (от них зависит stale_at) — по одному запросу на каждое, сколько бы вещей ни было.
+     */
+    private void fill(Map<Integer, ItemSummary> summaries, LocalDateTime now) {
+        summaries.values().forEach(ItemSummary::clear);
+        Collection<Integer> itemIds = summaries.keySet();
+        for (Comment comment : commentRepository.findAllWithAuthorByItemIdIn(itemIds)) {
+            summaries.get(comment.getItem().getId()).addComment(CommentMapper.mapToCommentDto(comment));
+        }
+        List<Long> bookingIds = bookingRepository.findLastAndNextApprovedBookingIds(itemIds, now);
+        if (!bookingIds.isEmpty()) {
+            bookingRepository.findAllWithBookerByIdIn(bookingIds).forEach(booking -> addBooking(summaries, booking, now));
+        }
+        bookingRepository.findCurrentApprovedByItemIdIn(itemIds, now).forEach(booking -> addBooking(summaries, booking, now));
+    }
+
+    private void markStale(Collection<Integer> itemIds) {
+        if (!itemIds.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            summaryRepository.markStaleByItemIdIn(itemIds, now);
+            ownerVersionRepository.incrementItemsWithStaleAtByItemIdIn(itemIds, now);
+        }
+    }
+
+    private void addBooking(Map<Integer, ItemSummary> summaries, Booking booking, LocalDateTime now) {
+        summaries.get(booking.getItem().getId()).addApprovedBooking(booking.getId(), booking.getStart(),
+                booking.getEnd(), booking.getBooker().getId(), now);
+    }
+}
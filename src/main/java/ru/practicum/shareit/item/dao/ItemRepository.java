@@ -1,15 +1,27 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerIdOrderByIdAsc(Long ownerId);
 
+    boolean existsByOwnerId(Long ownerId);
+
     @Query("SELECT i FROM Item i WHERE (i.name ILIKE %:text% OR i.description ILIKE %:text%) AND i.available = true")
     List<Item> findItemsByNameOrDescription(@Param("text") String text);
-}
\ No newline at end of file
+
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(int id, Pageable page);
+
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids AND i.available = true ORDER BY i.id")
+    List<Item> findAvailableByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids")
+    List<Item> findAllByIdIn(@Param("ids") Collection<Integer> ids);
+}
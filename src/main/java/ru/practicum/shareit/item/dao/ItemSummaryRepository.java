@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.dao;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemSummaryRepository extends JpaRepository<ItemSummary, Integer> {
+    @Query("SELECT s FROM ItemSummary s WHERE s.itemId IN :itemIds")
+    List<ItemSummary> findAllByItemIdIn(@Param("itemIds") Collection<Integer> itemIds);
+
+    /**
+     * Сводка под блокировкой строки: параллельные комментарии к одной вещи применяются по очереди
+     * и не теряют изменений друг друга.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemSummary s WHERE s.itemId = :itemId")
+    Optional<ItemSummary> findForUpdateByItemId(@Param("itemId") Integer itemId);
+
+    /**
+     * Пачка сводок для пересчёта. Строки, заблокированные подтверждением брони или комментарием,
+     * пропускаются (SKIP LOCKED) и пересчитываются в следующий раз.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM ItemSummary s WHERE s.itemId IN :itemIds")
+    List<ItemSummary> findForUpdateSkipLockedByItemIdIn(@Param("itemIds") Collection<Integer> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemSummary s WHERE s.staleAt <= :now ORDER BY s.staleAt")
+    List<Integer> findStaleItemIds(@Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Помечает сводки устаревшими сейчас: плановый пересчёт перечитает их из исходных таблиц,
+     * а до тех пор {@code ItemSummaryUpdater.getSummaries} считает их на лету.
+     */
+    @Modifying
+    @Query("UPDATE ItemSummary s SET s.staleAt = :now, s.version = s.version + 1 WHERE s.itemId IN :itemIds")
+    int markStaleByItemIdIn(@Param("itemIds") Collection<Integer> itemIds, @Param("now") LocalDateTime now);
+}
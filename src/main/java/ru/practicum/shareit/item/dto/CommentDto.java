@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.web.SparseFields;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFields.FILTER_ID)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.web.SparseFields;
 
 import java.util.List;
 
+@JsonFilter(SparseFields.FILTER_ID)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,4 +22,5 @@ public class ItemDto {
     BookingDto lastBooking;
     BookingDto nextBooking;
     List<CommentDto> comments;
+    Integer commentCount;
 }
\ No newline at end of file
@@ -5,12 +5,12 @@ import ru.practicum.shareit.user.User;
 
 public class ItemDtoMapper {
     public static Item toItemDto(ItemDto item, int id, Object owner) {
-        return new Item(
-                id,
-                item.getName(),
-                item.getDescription(),
-                item.getAvailable(),
-                (User) owner
-        );
+        return Item.builder()
+                .id(id)
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner((User) owner)
+                .build();
     }
 }
\ No newline at end of file
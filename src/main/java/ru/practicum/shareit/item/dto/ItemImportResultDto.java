@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Результат импорта одной строки: line — её номер в загруженном файле, при успехе заполнен id вещи,
+ * при отказе — error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportResultDto {
+    long line;
+    Long id;
+    String error;
+}
@@ -1,7 +1,12 @@
 package ru.practicum.shareit.item.dto;
 
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 public class ItemMapper {
@@ -18,6 +23,33 @@ public class ItemMapper {
                 .build();
     }
 
+    /**
+     * Переносит сводку в карточку: в последней/следующей брони только даты и id арендатора,
+     * из комментариев — последние {@link ItemSummary#LATEST_COMMENTS} и их общее число.
+     */
+    public static ItemDto applySummary(ItemDto itemDto, ItemSummary summary) {
+        itemDto.setLastBooking(mapToSummaryBooking(summary.getLastBookingId(), summary.getLastBookingStart(),
+                summary.getLastBookingEnd(), summary.getLastBookerId()));
+        itemDto.setNextBooking(mapToSummaryBooking(summary.getNextBookingId(), summary.getNextBookingStart(),
+                summary.getNextBookingEnd(), summary.getNextBookerId()));
+        itemDto.setComments(new ArrayList<>(summary.getLatestComments()));
+        itemDto.setCommentCount(summary.getCommentCount());
+        return itemDto;
+    }
+
+    private static BookingDto mapToSummaryBooking(Long id, LocalDateTime start, LocalDateTime end, Long bookerId) {
+        if (id == null) {
+            return null;
+        }
+        return BookingDto.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .booker(UserDto.builder().id(Math.toIntExact(bookerId)).build())
+                .build();
+    }
+
     public static Item mapToNewItem(NewItemDto requestItemDto) {
         return Item.builder()
                 .name(requestItemDto.getName())
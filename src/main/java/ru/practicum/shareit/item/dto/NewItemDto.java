@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -12,9 +13,15 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class NewItemDto {
     @NotBlank(message = "Название не может быть пустым")
+    @Size(max = 255, message = "Длина названия не должна превышать 255 символов")
     String name;
 
+    /**
+     * Ограничение повторяет {@code Item.description}: иначе слишком длинное описание прошло бы проверку
+     * строки при импорте и уронило бы сохранение всей пачки.
+     */
     @NotBlank(message = "Описание не может быть пустым")
+    @Size(max = 200, message = "Длина описания не должна превышать 200 символов")
     String description;
 
     @NotNull(message = "Статус аренды не может быть пустым")
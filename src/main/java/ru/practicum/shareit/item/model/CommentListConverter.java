@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Последние комментарии сводки хранятся одной JSON-строкой: карточка вещи читает их вместе со сводкой,
+ * без отдельного запроса к comment. Фильтр полей ответа ({@code @JsonFilter} на DTO) здесь не применяется.
+ */
+@Converter
+public class CommentListConverter implements AttributeConverter<List<CommentDto>, String> {
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .filterProvider(new SimpleFilterProvider().setFailOnUnknownId(false))
+            .build();
+    private static final TypeReference<List<CommentDto>> COMMENTS = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<CommentDto> comments) {
+        if (comments == null) {
+            return null;
+        }
+        try {
+            return JSON.writeValueAsString(comments);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить комментарии сводки", e);
+        }
+    }
+
+    @Override
+    public List<CommentDto> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return JSON.readValue(json, COMMENTS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать комментарии сводки", e);
+        }
+    }
+}
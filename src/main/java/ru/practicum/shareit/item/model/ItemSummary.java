@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сводка для карточки вещи: последняя и следующая подтверждённые брони, число комментариев и
+ * {@link #LATEST_COMMENTS} последних из них. Поддерживается инкрементально при подтверждении броней
+ * и добавлении комментариев; {@link #staleAt} — момент, после которого последняя/следующая бронь
+ * сменятся просто с течением времени и сводку надо пересчитать.
+ */
+@Data
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@EqualsAndHashCode(of = {"itemId"})
+@Entity
+@Table(name = "item_summary")
+public class ItemSummary {
+    public static final int LATEST_COMMENTS = 10;
+
+    @Id
+    @Column(name = "item_id", nullable = false, updatable = false)
+    Integer itemId;
+
+    @Column(name = "last_booking_id")
+    Long lastBookingId;
+
+    @Column(name = "last_booking_start")
+    LocalDateTime lastBookingStart;
+
+    @Column(name = "last_booking_end")
+    LocalDateTime lastBookingEnd;
+
+    @Column(name = "last_booker_id")
+    Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    Long nextBookingId;
+
+    @Column(name = "next_booking_start")
+    LocalDateTime nextBookingStart;
+
+    @Column(name = "next_booking_end")
+    LocalDateTime nextBookingEnd;
+
+    @Column(name = "next_booker_id")
+    Long nextBookerId;
+
+    @Column(name = "comment_count", nullable = false)
+    int commentCount;
+
+    @Convert(converter = CommentListConverter.class)
+    @Column(name = "latest_comments")
+    List<CommentDto> latestComments = new ArrayList<>();
+
+    @Column(name = "stale_at")
+    LocalDateTime staleAt;
+
+    @Version
+    @Column(nullable = false)
+    Long version;
+
+    public ItemSummary(Integer itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return staleAt != null && !staleAt.isAfter(now);
+    }
+
+    public void clear() {
+        lastBookingId = null;
+        lastBookingStart = null;
+        lastBookingEnd = null;
+        lastBookerId = null;
+        nextBookingId = null;
+        nextBookingStart = null;
+        nextBookingEnd = null;
+        nextBookerId = null;
+        commentCount = 0;
+        latestComments = new ArrayList<>();
+        staleAt = null;
+    }
+
+    /**
+     * Комментарии добавляются в порядке создания; хранятся только последние {@link #LATEST_COMMENTS}.
+     */
+    public void addComment(CommentDto comment) {
+        List<CommentDto> comments = new ArrayList<>(latestComments);
+        comments.add(comment);
+        if (comments.size() > LATEST_COMMENTS) {
+            comments = new ArrayList<>(comments.subList(comments.size() - LATEST_COMMENTS, comments.size()));
+        }
+        latestComments = comments;
+        commentCount++;
+    }
+
+    /**
+     * Учитывает подтверждённую бронь по тем же правилам, что и
+     * {@code BookingRepository.findLastAndNextApprovedBookingIds}: последняя — закончившаяся с самым
+     * поздним началом, следующая — ещё не начавшаяся с самым ранним. Текущая бронь ни той, ни другой
+     * не становится, но после её окончания сводка устареет.
+     */
+    public void addApprovedBooking(Long bookingId, LocalDateTime start, LocalDateTime end, Long bookerId,
+                                   LocalDateTime now) {
+        if (end.isBefore(now)) {
+            if (lastBookingStart == null || start.isAfter(lastBookingStart)) {
+                lastBookingId = bookingId;
+                lastBookingStart = start;
+                lastBookingEnd = end;
+                lastBookerId = bookerId;
+            }
+        } else if (start.isAfter(now)) {
+            if (nextBookingStart == null || start.isBefore(nextBookingStart)) {
+                nextBookingId = bookingId;
+                nextBookingStart = start;
+                nextBookingEnd = end;
+                nextBookerId = bookerId;
+            }
+            staleNoLaterThan(start);
+        } else {
+            staleNoLaterThan(end);
+        }
+    }
+
+    private void staleNoLaterThan(LocalDateTime moment) {
+        if (staleAt == null || moment.isBefore(staleAt)) {
+            staleAt = moment;
+        }
+    }
+}
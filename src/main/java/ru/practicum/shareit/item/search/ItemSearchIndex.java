@@ -0,0 +1,241 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по словам названия и описания доступных вещей.
+ *
+ * <p>Слова хранятся в словаре с отсортированными списками id вещей, а поверх словаря построен
+ * индекс триграмм, поэтому поиск подстроки сводится к поиску подходящих слов в словаре,
+ * без просмотра всех вещей. Индекс отдаёт кандидатов; окончательную проверку совпадения
+ * подстроки выполняет {@link ru.practicum.shareit.item.ItemService} по загруженным по id вещам.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.index.enabled", havingValue = "true")
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IntPostings> postings = new HashMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final Map<Integer, Set<String>> termsByItem = new HashMap<>();
+    private final Set<Integer> changedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        int lastId = 0;
+        int indexed = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(lastId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Item item : batch) {
+                    if (!changedDuringRebuild.contains(item.getId())) {
+                        put(item.getId(), item.getName(), item.getDescription(), true);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.getLast().getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей построен: {} вещей, {} слов за {} мс",
+                indexed, postings.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Обновляет вещь в индексе. Внутри транзакции изменение применяется только после её фиксации,
+     * чтобы откаченные изменения не попадали в выдачу.
+     */
+    public void index(Item item) {
+        int id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(id, name, description, available);
+                }
+            });
+        } else {
+            update(id, name, description, available);
+        }
+    }
+
+    /**
+     * Возвращает id вещей, в словах которых встречаются все слова запроса, по возрастанию.
+     * Пустой результат означает, что в запросе нет ни одного слова и индекс ответить не может.
+     */
+    public Optional<List<Integer>> search(String text) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (String queryTerm : queryTerms) {
+                BitSet matches = new BitSet();
+                for (String term : findTermsContaining(queryTerm)) {
+                    postings.get(term).addTo(matches);
+                }
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return Optional.of(result.stream().boxed().toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void update(int id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringRebuild.add(id);
+            }
+            put(id, name, description, available);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(int id, String name, String description, boolean available) {
+        Set<String> oldTerms = termsByItem.remove(id);
+        if (oldTerms != null) {
+            for (String term : oldTerms) {
+                IntPostings termPostings = postings.get(term);
+                termPostings.remove(id);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                    for (String gram : grams(term)) {
+                        Set<String> terms = termsByGram.get(gram);
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            termsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+        if (!available) {
+            return;
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(name));
+        terms.addAll(tokenize(description));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> {
+                for (String gram : grams(key)) {
+                    termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+                }
+                return new IntPostings();
+            }).add(id);
+        }
+        termsByItem.put(id, terms);
+    }
+
+    private Set<String> findTermsContaining(String queryTerm) {
+        if (queryTerm.length() < GRAM_LENGTH) {
+            Set<String> terms = new HashSet<>();
+            for (String term : postings.keySet()) {
+                if (term.contains(queryTerm)) {
+                    terms.add(term);
+                }
+            }
+            return terms;
+        }
+        Set<String> candidates = null;
+        for (String gram : grams(queryTerm)) {
+            Set<String> terms = termsByGram.getOrDefault(gram, Set.of());
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        Set<String> terms = new HashSet<>();
+        for (String term : candidates) {
+            if (term.contains(queryTerm)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> grams(String term) {
+        if (term.length() < GRAM_LENGTH) {
+            return List.of();
+        }
+        List<String> grams = new ArrayList<>(term.length() - GRAM_LENGTH + 1);
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.logging;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.Strategy;
+
+/**
+ * Логирование HTTP через Logbook с выборкой по путям. Сами записи уходят в логгер
+ * org.zalando.logbook.Logbook и дальше через асинхронный аппендер из logback-spring.xml,
+ * поэтому поток запроса не ждёт вывода.
+ */
+@Configuration
+@EnableConfigurationProperties(LoggingProperties.class)
+public class LoggingConfig {
+    @Bean
+    public Strategy logbookStrategy(LoggingProperties properties) {
+        return new SampledStrategy(properties);
+    }
+}
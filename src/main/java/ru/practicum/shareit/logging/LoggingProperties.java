@@ -0,0 +1,20 @@
+package ru.practicum.shareit.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Настройки выборочного логирования HTTP-запросов.
+ *
+ * @param defaultSampleRate доля логируемых запросов, если путь не попал ни в один шаблон
+ * @param sampleRates       доли по шаблонам путей ({@code /items/**}); побеждает первый подходящий шаблон
+ */
+@ConfigurationProperties("shareit.logging")
+public record LoggingProperties(@DefaultValue("0.01") double defaultSampleRate,
+                                Map<String, Double> sampleRates) {
+    public LoggingProperties {
+        sampleRates = sampleRates == null ? Map.of() : sampleRates;
+    }
+}
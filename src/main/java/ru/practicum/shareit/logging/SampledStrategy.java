@@ -0,0 +1,72 @@
+package ru.practicum.shareit.logging;
+
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Стратегия Logbook с выборкой: запрос попадает в лог с вероятностью, заданной для его пути,
+ * а ответы с ошибкой (статус 400 и выше) логируются всегда. Тело запроса буферизуется только
+ * у попавших в выборку запросов, поэтому остальные не тратят память на копию тела. Запрос пишется
+ * в лог вместе с ответом, когда уже известно, нужна ли эта пара.
+ *
+ * <p>Решение о выборке принимается при получении запроса и хранится в потоке до записи ответа;
+ * при асинхронной обработке, когда ответ пишет другой поток, запрос считается не попавшим в выборку.
+ */
+public class SampledStrategy implements Strategy {
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<>();
+
+    private final LoggingProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public SampledStrategy(LoggingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate(request.getPath());
+        SAMPLED.set(sampled);
+        return sampled ? request.withBody() : request.withoutBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return Boolean.TRUE.equals(SAMPLED.get()) || isError(response) ? response.withBody() : response.withoutBody();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        boolean sampled = Boolean.TRUE.equals(SAMPLED.get());
+        SAMPLED.remove();
+        if (sampled || isError(response)) {
+            sink.writeBoth(correlation, request, response);
+        }
+    }
+
+    private double sampleRate(String path) {
+        for (Map.Entry<String, Double> rate : properties.sampleRates().entrySet()) {
+            if (pathMatcher.match(rate.getKey(), path)) {
+                return rate.getValue();
+            }
+        }
+        return properties.defaultSampleRate();
+    }
+
+    private static boolean isError(HttpResponse response) {
+        return response.getStatus() >= 400;
+    }
+}
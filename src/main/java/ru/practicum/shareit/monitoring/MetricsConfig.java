@@ -0,0 +1,32 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.common.annotation.ValueExpressionResolver;
+import io.micrometer.common.annotation.ValueResolver;
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Таймеры методов сервисов. Классы сервисов помечены {@code @Timed(SERVICE_TIMER)}, аспект добавляет
+ * к таймеру теги class и method, а параметры с {@code @MeterTag} становятся отдельными тегами
+ * (например, state у списков бронирований).
+ *
+ * <p>Запросы к контроллерам измеряет http.server.requests, вызовы репозиториев Spring Data —
+ * spring.data.repository.invocations; гистограммы для них включены в application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        TimedAspect timedAspect = new TimedAspect(meterRegistry);
+        ValueResolver toString = String::valueOf;
+        ValueExpressionResolver ignoreExpression = (expression, parameter) -> String.valueOf(parameter);
+        timedAspect.setMeterTagAnnotationHandler(new MeterTagAnnotationHandler(type -> toString,
+                type -> ignoreExpression));
+        return timedAspect;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Бюджет SQL-запросов на один HTTP-запрос. Если запрос выполнил больше
+ * shareit.sql.budget.max-statements запросов к базе или один и тот же по форме запрос больше
+ * shareit.sql.budget.max-repeats раз (типичный признак N+1), в лог пишется предупреждение
+ * с числом запросов и повторяющимися формами. Проверка идёт после обработки запроса, когда
+ * ответ уже может быть отправлен, поэтому исключение здесь не бросается. Для тестов
+ * (shareit.sql.budget.record-violations=true) нарушения ещё и накапливаются: тест проверяет их через
+ * {@link #assertNoViolations()} после своих запросов.
+ * Пути из shareit.sql.budget.excluded-paths (массовые операции, где число запросов растёт
+ * с объёмом данных) не проверяются.
+ */
+@Slf4j
+@Component
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean recordViolations;
+    private final List<String> excludedPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    public SqlBudgetFilter(@Value("${shareit.sql.budget.max-statements:10}") int maxStatements,
+                           @Value("${shareit.sql.budget.max-repeats:3}") int maxRepeats,
+                           @Value("${shareit.sql.budget.record-violations:false}") boolean recordViolations,
+                           @Value("${shareit.sql.budget.excluded-paths:}") List<String> excludedPaths) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.recordViolations = recordViolations;
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.start();
+        Map<String, Integer> statements;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = SqlStatementCounter.stop();
+        }
+        check(request, statements);
+    }
+
+    private void check(HttpServletRequest request, Map<String, Integer> statements) {
+        int total = statements.values().stream().mapToInt(Integer::intValue).sum();
+        List<String> repeated = new ArrayList<>();
+        statements.forEach((shape, count) -> {
+            if (count > maxRepeats) {
+                repeated.add(count + "× " + shape);
+            }
+        });
+        if (total <= maxStatements && repeated.isEmpty()) {
+            return;
+        }
+        String message = String.format("%s %s выполнил %d SQL-запросов (бюджет %d)%s", request.getMethod(),
+                request.getRequestURI(), total, maxStatements,
+                repeated.isEmpty() ? "" : ", повторяющиеся запросы: " + String.join("; ", repeated));
+        log.warn(message);
+        if (recordViolations) {
+            violations.add(message);
+        }
+    }
+
+    /**
+     * Забирает накопленные нарушения и бросает {@link SqlBudgetExceededException}, если они были.
+     */
+    public void assertNoViolations() {
+        List<String> recorded = new ArrayList<>();
+        for (String violation = violations.poll(); violation != null; violation = violations.poll()) {
+            recorded.add(violation);
+        }
+        if (!recorded.isEmpty()) {
+            throw new SqlBudgetExceededException(String.join("\n", recorded));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Считает SQL-запросы, которые Hibernate отправляет в базу из текущего потока, с группировкой
+ * по форме запроса: списки параметров в IN сворачиваются, поэтому запросы, отличающиеся только
+ * числом id, считаются одинаковыми. Счёт ведётся между {@link #start()} и {@link #stop()},
+ * вне этого окна запросы не учитываются. Окна могут быть вложенными, и запрос учитывается в каждом
+ * открытом: тест, считающий запросы вокруг MockMvc, видит те же запросы, что и {@link SqlBudgetFilter}.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final ThreadLocal<Deque<Map<String, Integer>>> WINDOWS = new ThreadLocal<>();
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static void start() {
+        Deque<Map<String, Integer>> windows = WINDOWS.get();
+        if (windows == null) {
+            windows = new ArrayDeque<>();
+            WINDOWS.set(windows);
+        }
+        windows.push(new LinkedHashMap<>());
+    }
+
+    /**
+     * Закрывает последнее открытое окно и возвращает число выполнений по каждой форме запроса в порядке
+     * первого появления.
+     */
+    static Map<String, Integer> stop() {
+        Deque<Map<String, Integer>> windows = WINDOWS.get();
+        if (windows == null) {
+            return Map.of();
+        }
+        Map<String, Integer> statements = windows.pop();
+        if (windows.isEmpty()) {
+            WINDOWS.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Deque<Map<String, Integer>> windows = WINDOWS.get();
+        if (windows != null) {
+            String shape = shape(sql);
+            windows.forEach(statements -> statements.merge(shape, 1, Integer::sum));
+        }
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+    }
+}
@@ -12,10 +12,11 @@ import ru.practicum.shareit.user.User;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @EqualsAndHashCode(of = {"id"})
 @Entity
-@Table(name = "item")
+@Table(name = "request")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_seq")
+    @SequenceGenerator(name = "request_seq", sequenceName = "request_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false)
     Long id;
 
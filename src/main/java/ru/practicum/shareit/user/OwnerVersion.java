@@ -0,0 +1,44 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Счётчики изменений списков владельца для ETag: вещи с их карточками и брони его вещей.
+ * Увеличиваются массовыми UPDATE в тех же транзакциях, что меняют данные списков, поэтому
+ * проверка If-None-Match — это один поиск по первичному ключу.
+ *
+ * <p>{@link #itemsStaleAt} — самый ранний stale_at среди сводок вещей владельца: после него
+ * карточки меняются сами по себе, и список нельзя отдавать по тегу, пока сводки не пересчитаны.
+ */
+@Data
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@EqualsAndHashCode(of = {"ownerId"})
+@Entity
+@Table(name = "owner_version")
+public class OwnerVersion {
+    @Id
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    Long ownerId;
+
+    @Column(name = "items_version", nullable = false)
+    long itemsVersion;
+
+    @Column(name = "items_stale_at")
+    LocalDateTime itemsStaleAt;
+
+    @Column(name = "bookings_version", nullable = false)
+    long bookingsVersion;
+
+    public OwnerVersion(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public boolean isItemsStale(LocalDateTime now) {
+        return itemsStaleAt != null && !itemsStaleAt.isAfter(now);
+    }
+}
@@ -5,9 +5,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.web.ETags;
 
 import java.util.List;
 
@@ -35,8 +37,12 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserDto getUser(@PathVariable("id") Integer id) {
+    public UserDto getUser(@PathVariable("id") Integer id, WebRequest request) {
         log.info("Запрос на получение пользователя с id:{}", id);
+        String version = service.getUserVersion(id);
+        if (version != null && request.checkNotModified(ETags.of(version))) {
+            return null;
+        }
         return service.getUser(id);
     }
 
@@ -17,6 +17,11 @@ public interface UserService {
 
     UserDto getUser(Integer id);
 
+    /**
+     * Версия пользователя для ETag; {@code null}, если его нет.
+     */
+    String getUserVersion(Integer id);
+
     List<UserDto> getAllUsers();
 
     @Transactional
@@ -1,45 +1,90 @@
 package ru.practicum.shareit.user;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.DuplicatedDataException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemSummaryUpdater;
+import ru.practicum.shareit.monitoring.MetricsConfig;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.NewUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static ru.practicum.shareit.user.dto.UserMapper.*;
 
 @Service
 @Slf4j
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class UserServiceImpl implements UserService {
 
     @Autowired
     private final UserRepository storage;
 
-    public UserServiceImpl(UserRepository storage) {
+    private final OwnerVersionRepository ownerVersionRepository;
+
+    private final ItemSummaryUpdater itemSummaryUpdater;
+
+    /**
+     * Id пользователей, существование которых уже подтверждено. Проверка заголовка X-Sharer-User-Id
+     * для активных пользователей обходится без обращения к базе.
+     */
+    private final Cache<Long, Boolean> existingUsers;
+
+    public UserServiceImpl(UserRepository storage,
+                           OwnerVersionRepository ownerVersionRepository,
+                           ItemSummaryUpdater itemSummaryUpdater,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.user-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${shareit.user-cache.expire-after-write:10m}") Duration expireAfterWrite) {
         this.storage = storage;
+        this.ownerVersionRepository = ownerVersionRepository;
+        this.itemSummaryUpdater = itemSummaryUpdater;
+        this.existingUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existingUsers, "users");
     }
 
 
     @Override
     public UserDto create(NewUserDto userDto) {
         validateEmailExist(userDto.getEmail());
-        return mapToUserDto(storage.save(mapToNewUser(userDto)));
+        User user = storage.save(mapToNewUser(userDto));
+        ownerVersionRepository.save(new OwnerVersion(user.getId()));
+        return mapToUserDto(user);
     }
 
     @Override
     public UserDto update(Long userId, UpdateUserDto userDto) {
         User user = validateUserExist(userId);
         validateEmailExist(userDto.getEmail(), user.getId());
+        String oldName = user.getName();
         updateUserFields(user, userDto);
         storage.save(user);
+        ownerVersionRepository.incrementBookingsByBookerId(userId);
+        if (!Objects.equals(oldName, user.getName())) {
+            itemSummaryUpdater.authorRenamed(userId);
+        }
+        evict(userId);
         return mapToUserDto(user);
     }
 
@@ -49,6 +94,13 @@ public class UserServiceImpl implements UserService {
         return mapToUserDto(validateUserExist(Long.valueOf(id)));
     }
 
+    @Override
+    public String getUserVersion(Integer id) {
+        return storage.findById(Long.valueOf(id))
+                .map(user -> String.valueOf(user.getVersion()))
+                .orElse(null);
+    }
+
     @Override
     public List<UserDto> getAllUsers() {
         return storage.findAll().stream().map(UserMapper::mapToUserDto).toList();
@@ -57,13 +109,41 @@ public class UserServiceImpl implements UserService {
     @Override
     public void delete(Integer id) {
         validateUserExist(Long.valueOf(id));
+        ownerVersionRepository.incrementBookingsByBookerId(Long.valueOf(id));
+        itemSummaryUpdater.userDeleted(Long.valueOf(id));
         storage.deleteById(Long.valueOf(id));
+        evict(Long.valueOf(id));
     }
 
+    /**
+     * Для пользователя из кэша возвращается ссылка из текущего контекста персистентности без запроса к базе;
+     * его поля загрузятся только при первом обращении к ним.
+     */
     @Override
     public User validateUserExist(Long userId) {
-        return storage.findById(userId)
+        if (existingUsers.getIfPresent(userId) != null) {
+            return storage.getReferenceById(userId);
+        }
+        User user = storage.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id %d не найден.", userId)));
+        existingUsers.put(userId, Boolean.TRUE);
+        return user;
+    }
+
+    /**
+     * Сбрасывает запись сразу и ещё раз после фиксации транзакции, чтобы параллельный запрос,
+     * прочитавший старое состояние до фиксации, не вернул её в кэш.
+     */
+    private void evict(Long userId) {
+        existingUsers.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    existingUsers.invalidate(userId);
+                }
+            });
+        }
     }
 
     private void validateEmailExist(String email) {
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.user.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.user.OwnerVersion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Изменения счётчиков {@link OwnerVersion}. Строка владельца остаётся заблокированной до конца
+ * транзакции, так что параллельные изменения одного владельца увеличивают счётчик по очереди.
+ */
+public interface OwnerVersionRepository extends JpaRepository<OwnerVersion, Long> {
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.itemsVersion = v.itemsVersion + 1, " +
+            "v.bookingsVersion = v.bookingsVersion + 1 WHERE v.ownerId = :ownerId")
+    int incrementItemsAndBookings(@Param("ownerId") Long ownerId);
+
+    /**
+     * Подтверждение броней: меняются оба списка владельца, а его сводки с {@code staleAt} устарели,
+     * поэтому {@code itemsStaleAt} сдвигается на этот момент, если тот раньше.
+     */
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.itemsVersion = v.itemsVersion + 1, " +
+            "v.bookingsVersion = v.bookingsVersion + 1, " +
+            "v.itemsStaleAt = CASE WHEN v.itemsStaleAt IS NULL OR v.itemsStaleAt > :staleAt " +
+            "THEN :staleAt ELSE v.itemsStaleAt END " +
+            "WHERE v.ownerId = :ownerId")
+    int incrementItemsAndBookingsWithStaleAt(@Param("ownerId") Long ownerId, @Param("staleAt") LocalDateTime staleAt);
+
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.itemsVersion = v.itemsVersion + 1 " +
+            "WHERE v.ownerId IN (SELECT i.owner.id FROM Item i WHERE i.id IN :itemIds)")
+    int incrementItemsByItemIdIn(@Param("itemIds") Collection<Integer> itemIds);
+
+    /**
+     * То же, но сводка вещи стала устаревать раньше: {@code itemsStaleAt} сдвигается на {@code staleAt},
+     * если тот раньше.
+     */
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.itemsVersion = v.itemsVersion + 1, " +
+            "v.itemsStaleAt = CASE WHEN v.itemsStaleAt IS NULL OR v.itemsStaleAt > :staleAt " +
+            "THEN :staleAt ELSE v.itemsStaleAt END " +
+            "WHERE v.ownerId IN (SELECT i.owner.id FROM Item i WHERE i.id IN :itemIds)")
+    int incrementItemsWithStaleAtByItemIdIn(@Param("itemIds") Collection<Integer> itemIds,
+                                            @Param("staleAt") LocalDateTime staleAt);
+
+    /**
+     * После пересчёта сводок {@code itemsStaleAt} мог только отодвинуться, поэтому считается заново
+     * по сводкам всех вещей владельца.
+     */
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.itemsVersion = v.itemsVersion + 1, " +
+            "v.itemsStaleAt = (SELECT MIN(s.staleAt) FROM ItemSummary s, Item i " +
+            "WHERE s.itemId = i.id AND i.owner.id = v.ownerId) " +
+            "WHERE v.ownerId IN (SELECT i.owner.id FROM Item i WHERE i.id IN :itemIds)")
+    int recalculateItemsByItemIdIn(@Param("itemIds") Collection<Integer> itemIds);
+
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.bookingsVersion = v.bookingsVersion + 1 WHERE v.ownerId IN :ownerIds")
+    int incrementBookingsByOwnerIdIn(@Param("ownerIds") Collection<Long> ownerIds);
+
+    /**
+     * Имя и email арендатора входят в брони, поэтому их изменение меняет списки всех владельцев,
+     * у которых он что-то бронировал.
+     */
+    @Modifying
+    @Query("UPDATE OwnerVersion v SET v.bookingsVersion = v.bookingsVersion + 1 " +
+            "WHERE v.ownerId IN (SELECT b.ownerId FROM Booking b WHERE b.booker.id = :bookerId)")
+    int incrementBookingsByBookerId(@Param("bookerId") Long bookerId);
+}
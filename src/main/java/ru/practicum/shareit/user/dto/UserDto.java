@@ -1,12 +1,15 @@
 package ru.practicum.shareit.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Email;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.web.SparseFields;
 
+@JsonFilter(SparseFields.FILTER_ID)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
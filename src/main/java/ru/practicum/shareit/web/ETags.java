@@ -0,0 +1,20 @@
+package ru.practicum.shareit.web;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Сильные ETag для ответов GET. Тег строится из счётчиков версий ({@code @Version} сущностей,
+ * {@code OwnerVersion}) и параметров, влияющих на представление (fields, state, курсор), поэтому его
+ * можно посчитать и сравнить с If-None-Match до загрузки сущностей.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        return "\"" + DigestUtils.md5DigestAsHex(Arrays.deepToString(parts).getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Фильтр Jackson для параметра {@code fields}: в ответ попадают только перечисленные свойства.
+ * Вложенные свойства задаются через точку ({@code item.name}), элементы списков отдельно не
+ * указываются ({@code comments.text}). Свойство без продолжения включается целиком со всем вложенным,
+ * а неизвестные имена игнорируются. Без параметра и с {@code fields=*} отдаётся полное представление,
+ * {@code fields=compact} — компактное представление, заданное для списка.
+ *
+ * <p>DTO, к которым применяется фильтр, помечены {@code @JsonFilter(SparseFields.FILTER_ID)};
+ * для остальных ответов {@link SparseFieldsConfig} регистрирует фильтр, пропускающий всё.
+ */
+public final class SparseFields extends SimpleBeanPropertyFilter {
+    public static final String FILTER_ID = "sparseFields";
+    public static final String ALL = "*";
+    public static final String COMPACT = "compact";
+
+    private final Set<String> paths = new HashSet<>();
+    private final Set<String> parents = new HashSet<>();
+
+    private SparseFields(String fields) {
+        for (String field : fields.split(",")) {
+            String path = field.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            paths.add(path);
+            for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+                parents.add(path.substring(0, dot));
+            }
+        }
+    }
+
+    /**
+     * Оборачивает тело ответа с фильтром по {@code fields}; {@code fields=compact} заменяется
+     * на {@code compactFields}. Если параметр не передан, ответ не фильтруется.
+     */
+    public static MappingJacksonValue apply(Object body, String fields, String compactFields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        String selected = fields == null || fields.isBlank() ? ALL : fields.trim();
+        if (COMPACT.equals(selected)) {
+            selected = compactFields;
+        }
+        if (!ALL.equals(selected)) {
+            value.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, new SparseFields(selected)));
+        }
+        return value;
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                                 PropertyWriter writer) throws Exception {
+        if (includes(path(gen.getOutputContext(), writer.getName()))) {
+            writer.serializeAsField(pojo, gen, provider);
+        } else if (!gen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, gen, provider);
+        }
+    }
+
+    private boolean includes(String path) {
+        if (paths.contains(path) || parents.contains(path)) {
+            return true;
+        }
+        for (int dot = path.lastIndexOf('.'); dot > 0; dot = path.lastIndexOf('.', dot - 1)) {
+            if (paths.contains(path.substring(0, dot))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Путь свойства от корня ответа. Контекст генератора в этот момент — объект, которому принадлежит
+     * свойство; имена полей, под которыми лежат объекты выше по дереву, берутся из родительских
+     * контекстов, а уровни массивов пропускаются.
+     */
+    private static String path(JsonStreamContext context, String name) {
+        JsonStreamContext parent = context.getParent();
+        if (parent == null || parent.inRoot() || (parent.inArray() && parent.getParent().inRoot())) {
+            return name;
+        }
+        StringBuilder path = new StringBuilder(name);
+        for (; parent != null && !parent.inRoot(); parent = parent.getParent()) {
+            if (parent.inObject()) {
+                path.insert(0, '.').insert(0, parent.getCurrentName());
+            }
+        }
+        return path.toString();
+    }
+}
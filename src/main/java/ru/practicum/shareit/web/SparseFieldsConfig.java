@@ -0,0 +1,20 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Фильтр по умолчанию для DTO с {@code @JsonFilter(SparseFields.FILTER_ID)}: без него Jackson не смог бы
+ * сериализовать их там, где {@code fields} не применяется (одиночные ответы, выгрузка броней).
+ */
+@Configuration
+public class SparseFieldsConfig {
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsDefaultFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(SparseFields.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
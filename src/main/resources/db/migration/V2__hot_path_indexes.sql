@@ -0,0 +1,11 @@
+-- Индексы под запросы репозиториев. Порядок колонок повторяет условие и сортировку запроса,
+-- чтобы страница читалась по индексу без сортировки всей выборки.
+
+-- Страницы арендатора: WHERE booker_id = ? ORDER BY start_date DESC, id DESC.
+CREATE INDEX idx_booking_booker_start ON booking (booker_id, start_date DESC, id DESC);
+
+-- Вещи владельца по порядку id, проверка наличия вещей и соединение с бронями в страницах владельца.
+CREATE INDEX idx_item_owner ON item (owner_id, id);
+
+-- Комментарии вещей в порядке создания.
+CREATE INDEX idx_comment_item ON comment (item_id, created);
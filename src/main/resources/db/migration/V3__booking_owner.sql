@@ -0,0 +1,17 @@
+-- Владелец вещи копируется в бронь, чтобы списки владельца фильтровались и сортировались по индексу
+-- на booking без соединения с item. Составной внешний ключ на (item.id, item.owner_id) не даёт копии
+-- разойтись с оригиналом: при смене владельца вещи база сама обновит owner_id в её бронях.
+ALTER TABLE item ADD CONSTRAINT uq_item_id_owner UNIQUE (id, owner_id);
+
+ALTER TABLE booking ADD COLUMN owner_id BIGINT;
+
+UPDATE booking SET owner_id = (SELECT i.owner_id FROM item i WHERE i.id = booking.item_id);
+
+ALTER TABLE booking ALTER COLUMN owner_id SET NOT NULL;
+
+ALTER TABLE booking ADD CONSTRAINT fk_booking_item_owner FOREIGN KEY (item_id, owner_id)
+    REFERENCES item (id, owner_id) ON UPDATE CASCADE ON DELETE CASCADE;
+
+-- Страницы владельца: WHERE owner_id = ? [AND status IN (...)] ORDER BY start_date DESC, id DESC.
+CREATE INDEX idx_booking_owner_start ON booking (owner_id, start_date DESC, id DESC);
+CREATE INDEX idx_booking_owner_status_start ON booking (owner_id, status, start_date DESC, id DESC);
@@ -0,0 +1,27 @@
+-- Готовая карточка вещи: последняя и следующая подтверждённые брони, число комментариев и последние
+-- из них. Строка обновляется в тех же транзакциях, что меняют брони и комментарии. stale_at — момент,
+-- когда она устареет сама по себе: начнётся следующая бронь или закончится текущая.
+CREATE TABLE item_summary (
+    item_id BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    last_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    last_booking_end TIMESTAMP WITHOUT TIME ZONE,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_end TIMESTAMP WITHOUT TIME ZONE,
+    next_booker_id BIGINT,
+    comment_count INTEGER NOT NULL DEFAULT 0,
+    latest_comments TEXT,
+    stale_at TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_item_summary_item FOREIGN KEY (item_id) REFERENCES item(id)
+        ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+CREATE INDEX idx_item_summary_stale ON item_summary (stale_at);
+
+-- Уже существующие вещи получают пустые сводки, помеченные устаревшими: их заполнит плановый пересчёт,
+-- а до тех пор карточки считаются по исходным таблицам.
+INSERT INTO item_summary (item_id, comment_count, stale_at)
+SELECT id, 0, TIMESTAMP '2000-01-01 00:00:00' FROM item;
@@ -0,0 +1,14 @@
+-- Счётчики изменений списков владельца для ETag. Строка заводится вместе с пользователем;
+-- у существующих пользователей счётчики начинаются с нуля.
+CREATE TABLE owner_version (
+    owner_id BIGINT PRIMARY KEY,
+    items_version BIGINT NOT NULL DEFAULT 0,
+    items_stale_at TIMESTAMP WITHOUT TIME ZONE,
+    bookings_version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_owner_version_user FOREIGN KEY (owner_id) REFERENCES users(id)
+        ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+INSERT INTO owner_version (owner_id, items_stale_at)
+SELECT u.id, (SELECT MIN(s.stale_at) FROM item_summary s JOIN item i ON i.id = s.item_id WHERE i.owner_id = u.id)
+FROM users u;
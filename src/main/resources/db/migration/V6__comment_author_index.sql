@@ -0,0 +1,2 @@
+-- Смена имени пользователя помечает устаревшими сводки вещей, которые он комментировал.
+CREATE INDEX idx_comment_author ON comment (author_id);
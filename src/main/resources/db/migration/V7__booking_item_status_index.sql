@@ -0,0 +1,3 @@
+-- Последняя и следующая подтверждённые брони вещи: WHERE item_id = ? AND status = 'APPROVED'
+-- ORDER BY start_date LIMIT 1 в обе стороны от текущего момента.
+CREATE INDEX idx_booking_item_status_start ON booking (item_id, status, start_date);
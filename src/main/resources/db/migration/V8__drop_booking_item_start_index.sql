@@ -0,0 +1,3 @@
+-- Индекс из V1_1 дублирует начало idx_booking_item_status_start (V7): поиск по item_id и внешний ключ
+-- на item обслуживает новый индекс, а запросов по item_id и start_date без статуса не осталось.
+DROP INDEX idx_booking_item_start;
@@ -1,13 +1,205 @@
 package ru.practicum.shareit;
 
-//import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemSummaryUpdater;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.monitoring.SqlBudgetFilter;
+import ru.practicum.shareit.user.dao.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Основные эндпоинты через MockMvc на заполненной базе: у владельца несколько вещей с бронями
+ * и комментариями, так что N+1 в любом из них превысил бы бюджет {@link SqlBudgetFilter}. Фильтр
+ * накапливает нарушения, и после каждого теста они проверяются.
+ */
 @SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class ShareItTests {
+    private static final int ITEMS = 5;
+    private static final DateTimeFormatter QUERY_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    SqlBudgetFilter sqlBudgetFilter;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemSummaryUpdater itemSummaryUpdater;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    long ownerId;
+    long bookerId;
+    List<Integer> itemIds = new ArrayList<>();
+
+    /**
+     * Пользователи, вещи и комментарии создаются через API; прошедшие брони, которые API создать
+     * не даёт, — через репозиторий.
+     */
+    @BeforeAll
+    void seed() throws Exception {
+        ownerId = createUser("hot-owner@mail.ru");
+        bookerId = createUser("hot-booker@mail.ru");
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            int itemId = id(mockMvc.perform(json(post("/items"), ownerId, Map.of(
+                    "name", "Шуруповёрт " + i,
+                    "description", "Аккумуляторный шуруповёрт " + i,
+                    "available", true))));
+            itemIds.add(itemId);
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.save(Booking.builder()
+                    .start(now.minusDays(3))
+                    .end(now.minusDays(2))
+                    .item(itemRepository.getReferenceById((long) itemId))
+                    .booker(userRepository.getReferenceById(bookerId))
+                    .status(BookingStatus.APPROVED)
+                    .build()));
+            mockMvc.perform(json(post("/items/{id}/comment", itemId), bookerId,
+                            Map.of("text", "Отличный шуруповёрт")))
+                    .andExpect(status().isOk());
+        }
+        itemSummaryUpdater.refreshStale();
+        sqlBudgetFilter.assertNoViolations();
+    }
+
+    @AfterEach
+    void withinSqlBudget() {
+        sqlBudgetFilter.assertNoViolations();
+    }
+
+    @Test
+    void ownerItems() throws Exception {
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)))
+                .andExpect(jsonPath("$[0].comments", hasSize(1)));
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId).param("fields", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)));
+    }
+
+    @Test
+    void itemCard() throws Exception {
+        int itemId = itemIds.getFirst();
+        mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.booker.id").value(bookerId));
+        mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(1)));
+    }
+
+    @Test
+    void search() throws Exception {
+        mockMvc.perform(get("/items/search").param("text", "шуруповёрт"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)));
+    }
+
+    @Test
+    void availability() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        mockMvc.perform(get("/items/{id}/availability", itemIds.getFirst())
+                        .param("from", now.minusDays(7).format(QUERY_DATE_TIME))
+                        .param("to", now.plusDays(7).format(QUERY_DATE_TIME)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void bookingLists() throws Exception {
+        for (BookingState state : BookingState.values()) {
+            mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId).param("state", state.name()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId).param("state", state.name()))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void bookingLifecycle() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        NewBookingDto booking = NewBookingDto.builder()
+                .itemId((long) itemIds.getLast())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+        long bookingId = id(mockMvc.perform(json(post("/bookings"), bookerId, booking)));
+
+        mockMvc.perform(patch("/bookings/{id}", bookingId)
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(BookingStatus.APPROVED.name()));
+        mockMvc.perform(get("/bookings/{id}", bookingId).header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/{id}", itemIds.getLast()).header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextBooking.id").value(bookingId));
+    }
+
+    @Test
+    void userProfile() throws Exception {
+        mockMvc.perform(get("/users/{id}", bookerId))
+                .andExpect(status().isOk());
+        mockMvc.perform(json(patch("/users/{id}", bookerId), bookerId, Map.of("name", "Арендатор")))
+                .andExpect(status().isOk());
+    }
+
+    private long createUser(String email) throws Exception {
+        return id(mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("name", email, "email", email)))));
+    }
 
-	//@Test
-	void contextLoads() {
-	}
+    private int id(ResultActions result) throws Exception {
+        String body = result.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asInt();
+    }
 
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, long userId, Object body)
+            throws Exception {
+        return request.header("X-Sharer-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
 }
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.monitoring.SqlBudgetFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Слишком длинная строка NDJSON получает свою ошибку, а соседние строки импортируются как обычно.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemImportTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    SqlBudgetFilter sqlBudgetFilter;
+
+    @AfterEach
+    void withinSqlBudget() {
+        sqlBudgetFilter.assertNoViolations();
+    }
+
+    @Test
+    void tooLongLineIsReportedAndSkipped() throws Exception {
+        long ownerId = objectMapper.readTree(mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("name", "Импортёр", "email", "import-owner@mail.ru"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        String body = String.join("\r\n",
+                item("Рубанок", "x".repeat(ItemImporter.MAX_LINE_LENGTH)),
+                item("Стамеска", "Стамеска 12 мм"),
+                "{\"name\":");
+
+        String response = mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType("application/x-ndjson")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> results = new ArrayList<>();
+        objectMapper.readerFor(JsonNode.class).<JsonNode>readValues(response).forEachRemaining(results::add);
+        assertEquals(3, results.size(), response);
+        assertEquals("Строка длиннее " + ItemImporter.MAX_LINE_LENGTH + " символов",
+                results.get(0).get("error").asText());
+        assertEquals(2, results.get(1).get("line").asInt());
+        assertNotNull(results.get(1).get("id"), response);
+        assertEquals(3, results.get(2).get("line").asInt());
+        assertNotNull(results.get(2).get("error"), response);
+    }
+
+    private String item(String name, String description) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name, "description", description, "available", true));
+    }
+}
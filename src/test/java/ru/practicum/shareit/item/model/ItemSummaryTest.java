@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.model;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSummaryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final ItemSummary summary = new ItemSummary(1);
+
+    @Test
+    void pastBookingBecomesLastAndLeavesSummaryFresh() {
+        summary.addApprovedBooking(10L, NOW.minusDays(3), NOW.minusDays(2), 5L, NOW);
+
+        assertEquals(10L, summary.getLastBookingId());
+        assertEquals(5L, summary.getLastBookerId());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getStaleAt());
+    }
+
+    @Test
+    void laterStartedPastBookingReplacesLast() {
+        summary.addApprovedBooking(10L, NOW.minusDays(3), NOW.minusDays(2), 5L, NOW);
+        summary.addApprovedBooking(11L, NOW.minusDays(5), NOW.minusHours(1), 6L, NOW);
+        assertEquals(10L, summary.getLastBookingId());
+
+        summary.addApprovedBooking(12L, NOW.minusDays(1), NOW.minusHours(2), 7L, NOW);
+        assertEquals(12L, summary.getLastBookingId());
+        assertEquals(7L, summary.getLastBookerId());
+    }
+
+    @Test
+    void futureBookingBecomesNextAndStalesAtItsStart() {
+        summary.addApprovedBooking(20L, NOW.plusDays(2), NOW.plusDays(3), 5L, NOW);
+        summary.addApprovedBooking(21L, NOW.plusDays(1), NOW.plusDays(4), 6L, NOW);
+        summary.addApprovedBooking(22L, NOW.plusDays(5), NOW.plusDays(6), 7L, NOW);
+
+        assertNull(summary.getLastBookingId());
+        assertEquals(21L, summary.getNextBookingId());
+        assertEquals(6L, summary.getNextBookerId());
+        assertEquals(NOW.plusDays(1), summary.getStaleAt());
+    }
+
+    @Test
+    void currentBookingIsNeitherLastNorNextAndStalesAtItsEnd() {
+        summary.addApprovedBooking(30L, NOW.minusHours(1), NOW.plusHours(5), 5L, NOW);
+
+        assertNull(summary.getLastBookingId());
+        assertNull(summary.getNextBookingId());
+        assertEquals(NOW.plusHours(5), summary.getStaleAt());
+    }
+
+    @Test
+    void staleAtKeepsEarliestMoment() {
+        summary.addApprovedBooking(30L, NOW.minusHours(1), NOW.plusHours(5), 5L, NOW);
+        summary.addApprovedBooking(31L, NOW.plusDays(1), NOW.plusDays(2), 6L, NOW);
+        assertEquals(NOW.plusHours(5), summary.getStaleAt());
+
+        summary.addApprovedBooking(32L, NOW.plusHours(2), NOW.plusHours(3), 7L, NOW);
+        assertEquals(NOW.plusHours(2), summary.getStaleAt());
+    }
+
+    @Test
+    void becomesStaleOnceStaleAtIsReached() {
+        assertFalse(summary.isStale(NOW));
+
+        summary.addApprovedBooking(20L, NOW.plusDays(1), NOW.plusDays(2), 5L, NOW);
+
+        assertFalse(summary.isStale(NOW));
+        assertFalse(summary.isStale(NOW.plusDays(1).minusSeconds(1)));
+        assertTrue(summary.isStale(NOW.plusDays(1)));
+        assertTrue(summary.isStale(NOW.plusDays(3)));
+    }
+
+    @Test
+    void clearResetsBookingsCommentsAndStaleAt() {
+        summary.addApprovedBooking(10L, NOW.minusDays(3), NOW.minusDays(2), 5L, NOW);
+        summary.addApprovedBooking(20L, NOW.plusDays(1), NOW.plusDays(2), 5L, NOW);
+        summary.addComment(comment(1L));
+
+        summary.clear();
+
+        assertNull(summary.getLastBookingId());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getStaleAt());
+        assertEquals(0, summary.getCommentCount());
+        assertTrue(summary.getLatestComments().isEmpty());
+        assertFalse(summary.isStale(NOW.plusDays(5)));
+    }
+
+    @Test
+    void keepsOnlyLatestCommentsButCountsAll() {
+        int total = ItemSummary.LATEST_COMMENTS + 3;
+        for (long id = 1; id <= total; id++) {
+            summary.addComment(comment(id));
+        }
+
+        assertEquals(total, summary.getCommentCount());
+        assertEquals(ItemSummary.LATEST_COMMENTS, summary.getLatestComments().size());
+        assertEquals(4L, summary.getLatestComments().get(0).getId());
+        assertEquals((long) total, summary.getLatestComments().get(ItemSummary.LATEST_COMMENTS - 1).getId());
+    }
+
+    private static CommentDto comment(Long id) {
+        return CommentDto.builder()
+                .id(id)
+                .text("Комментарий " + id)
+                .authorName("Автор")
+                .created(NOW.minusMinutes(100 - id))
+                .build();
+    }
+}
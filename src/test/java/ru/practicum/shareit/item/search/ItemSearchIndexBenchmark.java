@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.load.BenchmarkApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Сравнение поиска вещей через ILIKE и через {@link ItemSearchIndex} на H2 с миллионом вещей.
+ *
+ * <p>Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.item.search.ItemSearchIndexBenchmark [-Dbench.items=1000000]}.
+ * Замеряется ровно то, что выполняет приложение: {@link ItemService#itemSearch} с включённым индексом
+ * (догрузка кандидатов пачками по id, а при слишком большом их числе — переход на ILIKE) против
+ * запроса ILIKE из {@link ItemRepository}, которым сервис ищет без индекса.
+ */
+public class ItemSearchIndexBenchmark {
+    private static final String[] SYLLABLES = {"дре", "ль", "пер", "фо", "ра", "тор", "ак", "кум", "ля", "ной",
+            "са", "мо", "кат", "лест", "ни", "ца", "па", "лат", "ка", "ве", "ло", "си", "пед", "ша", "тёр"};
+    private static final List<String> QUERIES = List.of("дрель", "перфо", "аккум", "лестн", "велосипед",
+            "самокат палатка", "дреперфо", "кумля", "тёрша", "ка", "а");
+    private static final int ROUNDS = 5;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    public static void main(String[] args) {
+        int itemCount = Integer.getInteger("bench.items", 1_000_000);
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("search", Map.of(
+                "spring.main.web-application-type", "none",
+                "shareit.search.index.enabled", "true"))) {
+            seed(context.getBean(JdbcTemplate.class), itemCount);
+            ItemSearchIndex index = context.getBean(ItemSearchIndex.class);
+            index.rebuild();
+            ItemService itemService = context.getBean(ItemService.class);
+            ItemRepository itemRepository = context.getBean(ItemRepository.class);
+
+            System.out.printf("%-20s %12s %12s %12s %10s%n", "query", "candidates", "ilike, ms", "service, ms",
+                    "found");
+            for (String query : QUERIES) {
+                int found = 0;
+                long ilikeNanos = 0;
+                long serviceNanos = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long startedAt = System.nanoTime();
+                    found = itemRepository.findItemsByNameOrDescription(query).size();
+                    ilikeNanos += System.nanoTime() - startedAt;
+
+                    startedAt = System.nanoTime();
+                    itemService.itemSearch(query);
+                    serviceNanos += System.nanoTime() - startedAt;
+                }
+                System.out.printf("%-20s %12d %12.2f %12.2f %10d%n", query,
+                        index.search(query).map(List::size).orElse(0),
+                        ilikeNanos / 1e6 / ROUNDS, serviceNanos / 1e6 / ROUNDS, found);
+            }
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int itemCount) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'Владелец', 'owner@bench.ru')");
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int id = 1; id <= itemCount; id++) {
+            batch.add(new Object[]{id, phrase(random, 2), phrase(random, 8), random.nextInt(10) > 0});
+            if (batch.size() == SEED_BATCH_SIZE || id == itemCount) {
+                jdbcTemplate.batchUpdate("INSERT INTO item (id, name, description, is_available, owner_id) " +
+                        "VALUES (?, ?, ?, ?, 1)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int word = 0; word < words; word++) {
+            if (word > 0) {
+                phrase.append(' ');
+            }
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                phrase.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        return phrase.toString();
+    }
+}
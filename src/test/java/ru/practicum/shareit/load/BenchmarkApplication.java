@@ -0,0 +1,48 @@
+package ru.practicum.shareit.load;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Запуск ShareItApp для нагрузочных прогонов и бенчмарков: по умолчанию на H2 в памяти, либо на базе,
+ * заданной свойствами bench.datasource.url/username/password/driver (например, Postgres из compose.yaml).
+ */
+public final class BenchmarkApplication {
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, Map<String, Object> properties, String... profiles) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", 0);
+        defaults.put("spring.datasource.url", System.getProperty("bench.datasource.url",
+                "jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        defaults.put("spring.datasource.driverClassName", System.getProperty("bench.datasource.driver",
+                "org.h2.Driver"));
+        defaults.put("spring.datasource.username", System.getProperty("bench.datasource.username", "sa"));
+        defaults.put("spring.datasource.password", System.getProperty("bench.datasource.password", ""));
+        defaults.put("logging.level.ru.practicum.shareit.monitoring.SqlBudgetFilter", "ERROR");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.org.springframework.web", "WARN");
+        defaults.put("logging.level.org.springframework.transaction.interceptor", "WARN");
+        defaults.put("logging.level.org.springframework.orm.jpa.JpaTransactionManager", "WARN");
+        defaults.putAll(properties);
+        // Аргументами командной строки, а не default properties: те слабее application.properties
+        // и не перекрыли бы datasource.
+        String[] args = defaults.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(profiles)
+                .run(args);
+    }
+
+    public static String baseUrl(ConfigurableApplicationContext context) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return "http://localhost:" + port;
+    }
+}
@@ -0,0 +1,392 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный прогон со смешанной нагрузкой по реальным эндпоинтам приложения.
+ *
+ * <p>Приложение поднимается в той же JVM (по умолчанию на H2, см. {@link BenchmarkApplication}),
+ * заполняется пользователями, вещами и бронированиями в прошлом, настоящем и будущем, после чего
+ * клиенты по замкнутому циклу отправляют запросы в заданной пропорции. Для каждого эндпоинта
+ * задержки успешных ответов собираются в HDR-гистограмму; после прогрева печатаются пропускная
+ * способность, p50/p95/p99/max и число ошибок. Этот отчёт служит базовой линией для сравнения
+ * изменений производительности.
+ *
+ * <p>Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.load.LoadGenerator [-Dbench.clients=100] [-Dbench.seconds=60]
+ * [-Dbench.warmup-seconds=15] [-Dbench.users=200] [-Dbench.items-per-user=10] [-Dbench.bookings-per-item=10]
+ * [-Dbench.mix=search=25,items=20,bookings=20,owner-bookings=15,create-booking=12,approve-booking=8]}.
+ */
+public class LoadGenerator {
+    public static final String DEFAULT_MIX =
+            "search=25,items=20,bookings=20,owner-bookings=15,create-booking=12,approve-booking=8";
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String[] NAMES = {"Дрель", "Перфоратор", "Шуруповёрт", "Лестница", "Палатка",
+            "Велосипед", "Самокат", "Болгарка"};
+    private static final String[] DESCRIPTIONS = {"Аккумуляторная, два аккумулятора в комплекте",
+            "Складная, алюминиевая", "Для походов на двоих", "Горный, 21 скорость", "Почти новый"};
+    private static final String[] QUERIES = {"дрель", "перфо", "аккум", "лестн", "палат", "велос", "самокат",
+            "складн", "горный"};
+    private static final BookingState[] STATES = BookingState.values();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final String baseUrl;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<SeededItem> items = new ArrayList<>();
+    private final List<SeededItem> availableItems = new ArrayList<>();
+    private final Queue<PendingBooking> waitingBookings = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bookingSlots = new AtomicLong();
+    private final LocalDateTime slotsFrom = LocalDateTime.now().plusYears(1);
+
+    public LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) {
+        int clients = Integer.getInteger("bench.clients", 100);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("bench.warmup-seconds", 15));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("bench.seconds", 60));
+        Map<Endpoint, Integer> mix = parseMix(System.getProperty("bench.mix", DEFAULT_MIX));
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("load", Map.of())) {
+            LoadGenerator generator = new LoadGenerator(BenchmarkApplication.baseUrl(context));
+            generator.seed(context, Integer.getInteger("bench.users", 200),
+                    Integer.getInteger("bench.items-per-user", 10), Integer.getInteger("bench.bookings-per-item", 10));
+            System.out.printf("clients=%d, warmup=%ds, duration=%ds, mix=%s%n", clients, warmup.toSeconds(),
+                    duration.toSeconds(), mix);
+            generator.run(mix, clients, warmup, duration).print(System.out);
+        }
+    }
+
+    /**
+     * Разбирает пропорцию вида {@code search=25,items=20}; эндпоинты, которых нет в строке, не вызываются.
+     */
+    public static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] keyValue = part.trim().split("=");
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Неверный элемент пропорции: " + part);
+            }
+            int weight = Integer.parseInt(keyValue[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.byKey(keyValue[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("В пропорции нет ни одного эндпоинта: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * Заполняет базу напрямую через репозитории: так можно создать бронирования в прошлом,
+     * которые API не принимает. Ожидающие подтверждения брони попадают в очередь для PATCH-запросов.
+     */
+    public void seed(ConfigurableApplicationContext context, int users, int itemsPerUser, int bookingsPerItem) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<User> savedUsers = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                savedUsers.add(userRepository.save(User.builder()
+                        .name("Пользователь " + i)
+                        .email("user-" + i + "@load.ru")
+                        .build()));
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDateTime now = LocalDateTime.now();
+            List<Booking> bookings = new ArrayList<>();
+            for (int ownerIndex = 0; ownerIndex < users; ownerIndex++) {
+                User owner = savedUsers.get(ownerIndex);
+                for (int i = 0; i < itemsPerUser; i++) {
+                    Item item = itemRepository.save(Item.builder()
+                            .name(NAMES[random.nextInt(NAMES.length)] + " " + i)
+                            .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                            .available(random.nextInt(10) > 0)
+                            .owner(owner)
+                            .build());
+                    SeededItem seededItem = new SeededItem(item.getId(), ownerIndex);
+                    items.add(seededItem);
+                    if (item.getAvailable()) {
+                        availableItems.add(seededItem);
+                    }
+                    for (int j = 0; j < bookingsPerItem; j++) {
+                        LocalDateTime start = now.plusDays(2L * (j - bookingsPerItem / 2));
+                        BookingStatus bookingStatus = start.isBefore(now) ? BookingStatus.APPROVED
+                                : BookingStatus.values()[random.nextInt(BookingStatus.values().length)];
+                        bookings.add(Booking.builder()
+                                .start(start)
+                                .end(start.plusDays(1))
+                                .item(item)
+                                .booker(savedUsers.get(otherUser(random, users, ownerIndex)))
+                                .status(bookingStatus)
+                                .build());
+                    }
+                }
+            }
+            for (Booking booking : bookingRepository.saveAll(bookings)) {
+                if (booking.getStatus() == BookingStatus.WAITING) {
+                    waitingBookings.add(new PendingBooking(booking.getId(), booking.getItem().getOwner().getId()));
+                }
+            }
+            savedUsers.forEach(user -> userIds.add(user.getId()));
+        });
+    }
+
+    /**
+     * Прогревает приложение, затем измеряет. Результаты прогрева отбрасываются.
+     */
+    public LoadReport run(Map<Endpoint, Integer> mix, int clients, Duration warmup, Duration duration) {
+        Endpoint[] schedule = schedule(mix);
+        if (!warmup.isZero()) {
+            drive(schedule, clients, warmup, new LoadReport(warmup));
+        }
+        LoadReport report = new LoadReport(duration);
+        drive(schedule, clients, duration, report);
+        return report;
+    }
+
+    private void drive(Endpoint[] schedule, int clients, Duration duration, LoadReport report) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        call(schedule[random.nextInt(schedule.length)], random, report);
+                    }
+                });
+            }
+        }
+    }
+
+    private void call(Endpoint endpoint, ThreadLocalRandom random, LoadReport report) {
+        PendingBooking pending = null;
+        if (endpoint == Endpoint.APPROVE_BOOKING) {
+            pending = waitingBookings.poll();
+            if (pending == null) {
+                endpoint = Endpoint.CREATE_BOOKING;
+            }
+        }
+        SeededItem bookedItem = endpoint == Endpoint.CREATE_BOOKING
+                ? availableItems.get(random.nextInt(availableItems.size())) : null;
+        HttpRequest request = switch (endpoint) {
+            case SEARCH -> get("/items/search?text="
+                    + URLEncoder.encode(QUERIES[random.nextInt(QUERIES.length)], StandardCharsets.UTF_8), null);
+            case OWNER_ITEMS -> get("/items", randomOwner(random));
+            case BOOKER_BOOKINGS -> get("/bookings?state=" + STATES[random.nextInt(STATES.length)],
+                    userIds.get(random.nextInt(userIds.size())));
+            case OWNER_BOOKINGS -> get("/bookings/owner?state=" + STATES[random.nextInt(STATES.length)],
+                    randomOwner(random));
+            case CREATE_BOOKING -> createBooking(bookedItem, random);
+            case APPROVE_BOOKING -> HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + pending.bookingId()
+                            + "?approved=" + random.nextBoolean()))
+                    .header(USER_HEADER, String.valueOf(pending.ownerId()))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+        };
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - startedAt;
+            if (response.statusCode() != 200) {
+                report.error(endpoint);
+                return;
+            }
+            report.record(endpoint, latency);
+            if (endpoint == Endpoint.CREATE_BOOKING) {
+                long bookingId = json.readTree(response.body()).get("id").asLong();
+                waitingBookings.add(new PendingBooking(bookingId, userIds.get(bookedItem.ownerIndex())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.error(endpoint);
+        } catch (Exception e) {
+            report.error(endpoint);
+        }
+    }
+
+    /**
+     * Каждая новая бронь получает свой получасовой слот через год от старта, поэтому запросы
+     * на создание не пересекаются ни между собой, ни с заполненными бронями.
+     */
+    private HttpRequest createBooking(SeededItem item, ThreadLocalRandom random) {
+        LocalDateTime start = slotsFrom.plusHours(bookingSlots.getAndIncrement());
+        String body = "{\"itemId\":" + item.id() + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusMinutes(30)
+                + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                .header(USER_HEADER, String.valueOf(userIds.get(otherUser(random, userIds.size(), item.ownerIndex()))))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, Long userId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (userId != null) {
+            request.header(USER_HEADER, String.valueOf(userId));
+        }
+        return request.build();
+    }
+
+    private Long randomOwner(ThreadLocalRandom random) {
+        return userIds.get(items.get(random.nextInt(items.size())).ownerIndex());
+    }
+
+    private static int otherUser(ThreadLocalRandom random, int users, int userIndex) {
+        if (users == 1) {
+            return userIndex;
+        }
+        int other = random.nextInt(users - 1);
+        return other >= userIndex ? other + 1 : other;
+    }
+
+    private static Endpoint[] schedule(Map<Endpoint, Integer> mix) {
+        List<Endpoint> schedule = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(endpoint);
+            }
+        });
+        return schedule.toArray(new Endpoint[0]);
+    }
+
+    public enum Endpoint {
+        SEARCH("search", "GET /items/search"),
+        OWNER_ITEMS("items", "GET /items"),
+        BOOKER_BOOKINGS("bookings", "GET /bookings"),
+        OWNER_BOOKINGS("owner-bookings", "GET /bookings/owner"),
+        CREATE_BOOKING("create-booking", "POST /bookings"),
+        APPROVE_BOOKING("approve-booking", "PATCH /bookings/{id}");
+
+        private final String key;
+        private final String title;
+
+        Endpoint(String key, String title) {
+            this.key = key;
+            this.title = title;
+        }
+
+        static Endpoint byKey(String key) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.key.equals(key)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестный эндпоинт в пропорции: " + key);
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+
+    /**
+     * Задержки успешных ответов в наносекундах и число ошибок по каждому эндпоинту за один прогон.
+     */
+    public static class LoadReport {
+        private static final int SIGNIFICANT_DIGITS = 3;
+
+        private final Duration duration;
+        private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+        LoadReport(Duration duration) {
+            this.duration = duration;
+            for (Endpoint endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+                errors.put(endpoint, new LongAdder());
+            }
+        }
+
+        void record(Endpoint endpoint, long latencyNanos) {
+            latencies.get(endpoint).recordValue(latencyNanos);
+        }
+
+        void error(Endpoint endpoint) {
+            errors.get(endpoint).increment();
+        }
+
+        public Histogram total() {
+            Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+            latencies.values().forEach(total::add);
+            return total;
+        }
+
+        public long totalErrors() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public double throughput(Histogram histogram) {
+            return histogram.getTotalCount() / (duration.toNanos() / 1e9);
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%-24s %10s %10s %10s %10s %10s %10s %8s%n",
+                    "endpoint", "requests", "req/s", "p50, ms", "p95, ms", "p99, ms", "max, ms", "errors");
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histogram = latencies.get(endpoint);
+                long endpointErrors = errors.get(endpoint).sum();
+                if (histogram.getTotalCount() > 0 || endpointErrors > 0) {
+                    printRow(out, endpoint.title, histogram, endpointErrors);
+                }
+            }
+            printRow(out, "total", total(), totalErrors());
+        }
+
+        private void printRow(PrintStream out, String title, Histogram histogram, long rowErrors) {
+            out.printf("%-24s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n", title, histogram.getTotalCount(),
+                    throughput(histogram), millis(histogram, 50), millis(histogram, 95), millis(histogram, 99),
+                    histogram.getMaxValue() / 1e6, rowErrors);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+
+    private record SeededItem(int id, int ownerIndex) {
+    }
+
+    private record PendingBooking(long bookingId, long ownerId) {
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.load;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Сравнение пропускной способности и p99 на потоках платформы и на виртуальных потоках.
+ *
+ * <p>Приложение поднимается дважды с одинаковыми настройками пула соединений, отличается только
+ * профиль virtual-threads. Нагрузку в обоих режимах даёт {@link LoadGenerator} с одной и той же
+ * пропорцией запросов. На H2 в памяти база почти не ждёт ввода-вывода, поэтому
+ * показательные цифры получаются на Postgres:
+ * {@code -Dbench.datasource.url=jdbc:postgresql://localhost:5432/shareit -Dbench.datasource.driver=org.postgresql.Driver
+ * -Dbench.datasource.username=dbuser -Dbench.datasource.password=12345}.
+ *
+ * <p>Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.practicum.shareit.load.VirtualThreadsBenchmark [-Dbench.clients=400] [-Dbench.seconds=30]
+ * [-Dbench.mix=items=100]}.
+ */
+public class VirtualThreadsBenchmark {
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("bench.warmup-seconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("bench.seconds", 30));
+    private static final Map<LoadGenerator.Endpoint, Integer> MIX =
+            LoadGenerator.parseMix(System.getProperty("bench.mix", LoadGenerator.DEFAULT_MIX));
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %12s %10s %10s %10s%n", "mode", "req/s", "p50, ms", "p99, ms", "errors");
+        run("platform");
+        run("virtual", "virtual-threads");
+    }
+
+    private static void run(String mode, String... profiles) {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start("vt-" + mode, Map.of(
+                "spring.datasource.hikari.maximum-pool-size", 20,
+                "server.tomcat.threads.max", 200), profiles)) {
+            LoadGenerator generator = new LoadGenerator(BenchmarkApplication.baseUrl(context));
+            generator.seed(context, 100, 10, 10);
+            LoadGenerator.LoadReport report = generator.run(MIX, CLIENTS, WARMUP, DURATION);
+            Histogram total = report.total();
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10d%n", mode, report.throughput(total),
+                    total.getValueAtPercentile(50) / 1e6, total.getValueAtPercentile(99) / 1e6, report.totalErrors());
+        }
+    }
+}
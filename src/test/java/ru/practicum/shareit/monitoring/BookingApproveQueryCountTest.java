@@ -0,0 +1,144 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSummaryRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.OwnerVersion;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Подтверждение брони стоит четыре запроса: условный UPDATE брони, проекция для ответа и два UPDATE
+ * учёта — сводка вещи помечается устаревшей, счётчики владельца увеличиваются. Пакетное подтверждение
+ * выполняет каждый запрос один раз, сколько бы броней в нём ни было.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingApproveQueryCountTest {
+    private static final int BATCH_SIZE = 10;
+
+    @Autowired
+    BookingService bookingService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    OwnerVersionRepository ownerVersionRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    User owner;
+    Item item;
+    Long bookingId;
+    List<Long> batchIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            owner = userRepository.save(User.builder().name("Владелец").email("approve-owner@mail.ru").build());
+            User booker = userRepository.save(User.builder().name("Арендатор").email("approve-booker@mail.ru").build());
+            ownerVersionRepository.save(new OwnerVersion(owner.getId()));
+            item = itemRepository.save(Item.builder()
+                    .name("Дрель")
+                    .description("Ударная дрель")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            itemSummaryRepository.save(new ItemSummary(item.getId()));
+            bookingId = bookingRepository.save(waiting(item, booker, now.plusDays(1))).getId();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Item batchItem = itemRepository.save(Item.builder()
+                        .name("Вещь " + i)
+                        .description("Описание вещи " + i)
+                        .available(true)
+                        .owner(owner)
+                        .build());
+                itemSummaryRepository.save(new ItemSummary(batchItem.getId()));
+                batchIds.add(bookingRepository.save(waiting(batchItem, booker, now.plusDays(1))).getId());
+            }
+        });
+    }
+
+    @Test
+    void approveCostsFourStatements() {
+        OwnerVersion before = ownerVersionRepository.findById(owner.getId()).orElseThrow();
+
+        SqlStatementCounter.start();
+        BookingDto booking = bookingService.updateStatusBooking(owner.getId(), bookingId, true);
+        Map<String, Integer> statements = SqlStatementCounter.stop();
+
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        assertEquals("Дрель", booking.getItem().getName());
+        assertEquals("Арендатор", booking.getBooker().getName());
+        assertEquals(List.of("update booking", "select", "update item_summary", "update owner_version"),
+                statements.keySet().stream().map(BookingApproveQueryCountTest::kind).toList(),
+                statements::toString);
+        assertTrue(statements.values().stream().allMatch(times -> times == 1), statements::toString);
+
+        OwnerVersion after = ownerVersionRepository.findById(owner.getId()).orElseThrow();
+        assertEquals(before.getBookingsVersion() + 1, after.getBookingsVersion());
+        assertEquals(before.getItemsVersion() + 1, after.getItemsVersion());
+        assertTrue(itemSummaryRepository.findById(item.getId()).orElseThrow().isStale(LocalDateTime.now()));
+    }
+
+    @Test
+    void batchApproveRunsEachStatementOnce() {
+        SqlStatementCounter.start();
+        List<BookingBatchResultDto> results = bookingService.updateStatusBatch(owner.getId(), batchIds, true);
+        Map<String, Integer> statements = SqlStatementCounter.stop();
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BookingStatus.APPROVED),
+                results::toString);
+        assertTrue(statements.values().stream().allMatch(times -> times == 1), statements::toString);
+        assertTrue(batchIds.stream().allMatch(id ->
+                bookingRepository.findById(id).orElseThrow().getStatus() == BookingStatus.APPROVED));
+    }
+
+    private static Booking waiting(Item item, User booker, LocalDateTime start) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+
+    /**
+     * Тип запроса и, для UPDATE, таблица.
+     */
+    private static String kind(String sql) {
+        String[] words = sql.toLowerCase().split(" ");
+        return words[0].equals("update") ? words[0] + " " + words[1] : words[0];
+    }
+}
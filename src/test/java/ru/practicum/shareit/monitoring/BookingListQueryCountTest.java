@@ -0,0 +1,180 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.OwnerVersion;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Непустая страница броней арендатора и владельца стоит ровно один запрос к базе в любом состоянии
+ * фильтра, сколько бы броней на ней ни было. Тег списка владельца считается только для условных запросов.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingListQueryCountTest {
+    private static final int MANY_ITEMS = 5;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    OwnerVersionRepository ownerVersionRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    SqlBudgetFilter sqlBudgetFilter;
+
+    User oneOwner;
+    User manyOwner;
+    User oneBooker;
+    User manyBooker;
+
+    /**
+     * На каждую вещь по брони в каждом состоянии: прошедшая, текущая, будущая ожидающая и отклонённая.
+     */
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            oneOwner = saveUser("list-one-owner@mail.ru");
+            manyOwner = saveUser("list-many-owner@mail.ru");
+            oneBooker = saveUser("list-one-booker@mail.ru");
+            manyBooker = saveUser("list-many-booker@mail.ru");
+            seedItem(oneOwner, oneBooker, 0);
+            for (int i = 0; i < MANY_ITEMS; i++) {
+                seedItem(manyOwner, manyBooker, i);
+            }
+        });
+    }
+
+    @AfterEach
+    void withinSqlBudget() {
+        sqlBudgetFilter.assertNoViolations();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void ownerPageCostsOneStatement(BookingState state) throws Exception {
+        assertEquals(1, count("/bookings/owner", oneOwner, state, 1));
+        assertEquals(1, count("/bookings/owner", manyOwner, state, MANY_ITEMS));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void bookerPageCostsOneStatement(BookingState state) throws Exception {
+        assertEquals(1, count("/bookings", oneBooker, state, 1));
+        assertEquals(1, count("/bookings", manyBooker, state, MANY_ITEMS));
+    }
+
+    @Test
+    void ownerPageTagIsComputedOnlyForConditionalRequests() throws Exception {
+        mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", manyOwner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        String etag = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", manyOwner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"unknown\""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", manyOwner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private int count(String path, User user, BookingState state, int expectedBookings) throws Exception {
+        SqlStatementCounter.start();
+        Map<String, Integer> statements;
+        try {
+            mockMvc.perform(get(path)
+                            .header("X-Sharer-User-Id", user.getId())
+                            .param("state", state.name()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(expectedBookings(state, expectedBookings))));
+        } finally {
+            statements = SqlStatementCounter.stop();
+        }
+        return statements.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Прошедших броней на вещь две (подтверждённая и отклонённая), всех — четыре.
+     */
+    private static int expectedBookings(BookingState state, int items) {
+        return switch (state) {
+            case ALL -> items * 4;
+            case PAST -> items * 2;
+            default -> items;
+        };
+    }
+
+    private User saveUser(String email) {
+        User user = userRepository.save(User.builder().name(email).email(email).build());
+        ownerVersionRepository.save(new OwnerVersion(user.getId()));
+        return user;
+    }
+
+    private void seedItem(User owner, User booker, int index) {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = itemRepository.save(Item.builder()
+                .name("Вещь " + index)
+                .description("Описание вещи " + index)
+                .available(true)
+                .owner(owner)
+                .build());
+        bookingRepository.save(booking(item, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED));
+        bookingRepository.save(booking(item, booker, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+        bookingRepository.save(booking(item, booker, now.plusDays(5), now.plusDays(6), BookingStatus.WAITING));
+        bookingRepository.save(booking(item, booker, now.minusDays(8), now.minusDays(7), BookingStatus.REJECTED));
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end,
+                                   BookingStatus status) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
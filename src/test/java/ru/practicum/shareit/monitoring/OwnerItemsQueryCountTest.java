@@ -0,0 +1,160 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemSummaryUpdater;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSummaryRepository;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.OwnerVersion;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Список вещей владельца загружается одним и тем же числом запросов, сколько бы вещей у него ни было:
+ * и когда сводки читаются из item_summary, и когда устаревшие сводки считаются по исходным таблицам.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OwnerItemsQueryCountTest {
+    private static final int MANY_ITEMS = 20;
+
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    ItemSummaryUpdater itemSummaryUpdater;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    OwnerVersionRepository ownerVersionRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    User booker;
+    User oneItemOwner;
+    User manyItemsOwner;
+    List<Integer> itemIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            booker = saveUser("count-booker@mail.ru");
+            oneItemOwner = saveUser("count-one@mail.ru");
+            manyItemsOwner = saveUser("count-many@mail.ru");
+            seedItem(oneItemOwner, 0);
+            for (int i = 0; i < MANY_ITEMS; i++) {
+                seedItem(manyItemsOwner, i);
+            }
+        });
+    }
+
+    @Test
+    void freshSummariesTakeSameStatementsForOneAndManyItems() {
+        assertSameStatements();
+    }
+
+    @Test
+    void staleSummariesTakeSameStatementsForOneAndManyItems() {
+        transactionTemplate.executeWithoutResult(status ->
+                itemSummaryRepository.markStaleByItemIdIn(itemIds, LocalDateTime.now().minusMinutes(1)));
+        try {
+            assertSameStatements();
+        } finally {
+            itemSummaryUpdater.refreshStale();
+        }
+    }
+
+    private void assertSameStatements() {
+        Map<String, Integer> one = count(oneItemOwner, 1);
+        Map<String, Integer> many = count(manyItemsOwner, MANY_ITEMS);
+
+        int oneTotal = one.values().stream().mapToInt(Integer::intValue).sum();
+        int manyTotal = many.values().stream().mapToInt(Integer::intValue).sum();
+        assertEquals(oneTotal, manyTotal, () -> "Одна вещь: " + one + "\nМного вещей: " + many);
+        assertTrue(many.values().stream().allMatch(times -> times == 1), () -> "Повторы запросов: " + many);
+    }
+
+    /**
+     * Первый вызов прогревает кэш пользователей и второго уровня, считается второй.
+     */
+    private Map<String, Integer> count(User owner, int expectedItems) {
+        itemService.getItemsForOwner(owner.getId());
+        SqlStatementCounter.start();
+        List<ItemDto> items = itemService.getItemsForOwner(owner.getId());
+        Map<String, Integer> statements = SqlStatementCounter.stop();
+        assertEquals(expectedItems, items.size());
+        return statements;
+    }
+
+    private User saveUser(String email) {
+        User user = userRepository.save(User.builder().name(email).email(email).build());
+        ownerVersionRepository.save(new OwnerVersion(user.getId()));
+        return user;
+    }
+
+    private void seedItem(User owner, int index) {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = itemRepository.save(Item.builder()
+                .name("Вещь " + index)
+                .description("Описание вещи " + index)
+                .available(true)
+                .owner(owner)
+                .build());
+        itemIds.add(item.getId());
+        ItemSummary summary = new ItemSummary(item.getId());
+        Booking last = bookingRepository.save(booking(item, now.minusDays(3), now.minusDays(2)));
+        Booking next = bookingRepository.save(booking(item, now.plusDays(2), now.plusDays(3)));
+        summary.addApprovedBooking(last.getId(), last.getStart(), last.getEnd(), booker.getId(), now);
+        summary.addApprovedBooking(next.getId(), next.getStart(), next.getEnd(), booker.getId(), now);
+        Comment comment = commentRepository.save(Comment.builder()
+                .text("Комментарий")
+                .item(item)
+                .author(booker)
+                .created(now)
+                .build());
+        summary.addComment(CommentMapper.mapToCommentDto(comment));
+        itemSummaryRepository.save(summary);
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
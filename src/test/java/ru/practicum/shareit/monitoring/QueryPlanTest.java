@@ -0,0 +1,338 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSummaryRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.OwnerVersion;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.OwnerVersionRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет планы всех запросов репозиториев на заполненной базе H2: каждый запрос вызывается через
+ * репозиторий, его SQL перехватывает {@link SqlStatementCounter}, а затем выполняется EXPLAIN.
+ * Тест падает, если какая-то таблица читается полным сканированием (tableScan) или индекс
+ * просматривается целиком, без условия. Новый метод репозитория нужно добавить в {@link #queries()},
+ * иначе упадёт проверка покрытия.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 10;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    /**
+     * Запросы, для которых полное сканирование ожидаемо.
+     */
+    private static final Set<String> FULL_SCAN_ALLOWED = Set.of(
+            // ILIKE с ведущим % не может использовать B-tree индекс; это запасной путь поиска,
+            // основной идёт через ItemSearchIndex.
+            "ItemRepository.findItemsByNameOrDescription");
+
+    /**
+     * Комментарий H2 к источнику строк без условия: {@code PUBLIC.BOOKING.tableScan} или имя индекса
+     * без ": условие".
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\*\\s*\"?PUBLIC\"?\\.[^*:]*?\\s*\\*/");
+
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    OwnerVersionRepository ownerVersionRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User owner;
+    User booker;
+    Item item;
+    Booking booking;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>();
+            for (int u = 0; u < USERS; u++) {
+                users.add(User.builder().name("Пользователь " + u).email("plan" + u + "@mail.ru").build());
+            }
+            users = userRepository.saveAll(users);
+            ownerVersionRepository.saveAll(users.stream().map(user -> new OwnerVersion(user.getId())).toList());
+            List<Item> items = new ArrayList<>();
+            for (User user : users) {
+                for (int i = 0; i < ITEMS_PER_USER; i++) {
+                    items.add(Item.builder()
+                            .name("Вещь " + i)
+                            .description("Описание вещи " + i)
+                            .available(i % 2 == 0)
+                            .owner(user)
+                            .build());
+                }
+            }
+            items = itemRepository.saveAll(items);
+            itemSummaryRepository.saveAll(items.stream()
+                    .map(savedItem -> {
+                        ItemSummary summary = new ItemSummary(savedItem.getId());
+                        summary.setStaleAt(now.plusHours(savedItem.getId() % 48));
+                        return summary;
+                    })
+                    .toList());
+            List<Booking> bookings = new ArrayList<>();
+            List<Comment> comments = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                Item bookedItem = items.get(i);
+                User bookedBy = users.get((i + 1) % USERS);
+                for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                    LocalDateTime start = now.plusDays(b - BOOKINGS_PER_ITEM / 2).plusHours(i);
+                    bookings.add(Booking.builder()
+                            .start(start)
+                            .end(start.plusHours(2))
+                            .item(bookedItem)
+                            .booker(bookedBy)
+                            .status(BookingStatus.values()[b % BookingStatus.values().length])
+                            .build());
+                }
+                comments.add(Comment.builder()
+                        .text("Комментарий")
+                        .item(bookedItem)
+                        .author(bookedBy)
+                        .created(now)
+                        .build());
+            }
+            bookings = bookingRepository.saveAll(bookings);
+            commentRepository.saveAll(comments);
+            owner = users.getFirst();
+            item = items.getFirst();
+            booker = users.get(1);
+            booking = bookings.getFirst();
+        });
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void everyRepositoryQueryIsCovered() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(BookingRepository.class, ItemRepository.class,
+                CommentRepository.class, UserRepository.class, ItemSummaryRepository.class,
+                OwnerVersionRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isDefault()) {
+                    declared.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        assertEquals(declared, new TreeSet<>(queries().keySet()));
+    }
+
+    @Test
+    void noRepositoryQueryFallsBackToFullScan() {
+        Map<String, String> violations = new LinkedHashMap<>();
+        queries().forEach((name, query) -> {
+            if (FULL_SCAN_ALLOWED.contains(name)) {
+                return;
+            }
+            for (String sql : capture(query)) {
+                String plan = explain(sql);
+                if (FULL_SCAN.matcher(plan).find()) {
+                    violations.put(name, plan);
+                }
+            }
+        });
+        assertTrue(violations.isEmpty(), () -> "Полное сканирование в планах запросов:\n" + violations);
+    }
+
+    private Map<String, Runnable> queries() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursorStart = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        Long cursorId = Long.MAX_VALUE;
+        Pageable page = PageRequest.of(0, 21);
+        List<BookingStatus> waiting = List.of(BookingStatus.WAITING);
+        Long ownerId = owner.getId();
+        Long bookerId = booker.getId();
+        int itemId = item.getId();
+        Long bookingId = booking.getId();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("BookingRepository.findOwnerPage",
+                () -> bookingRepository.findOwnerPage(ownerId, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findOwnerPageByStatusIn",
+                () -> bookingRepository.findOwnerPageByStatusIn(ownerId, waiting, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findOwnerCurrentPage",
+                () -> bookingRepository.findOwnerCurrentPage(ownerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findOwnerFuturePage",
+                () -> bookingRepository.findOwnerFuturePage(ownerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findOwnerPastPage",
+                () -> bookingRepository.findOwnerPastPage(ownerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findBookerPage",
+                () -> bookingRepository.findBookerPage(bookerId, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findBookerPageByStatusIn",
+                () -> bookingRepository.findBookerPageByStatusIn(bookerId, waiting, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findBookerCurrentPage",
+                () -> bookingRepository.findBookerCurrentPage(bookerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findBookerFuturePage",
+                () -> bookingRepository.findBookerFuturePage(bookerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findBookerPastPage",
+                () -> bookingRepository.findBookerPastPage(bookerId, now, cursorStart, cursorId, page));
+        queries.put("BookingRepository.findViewById",
+                () -> bookingRepository.findViewById(bookingId));
+        queries.put("BookingRepository.findAllByItemId",
+                () -> bookingRepository.findAllByItemId((long) itemId));
+        queries.put("BookingRepository.findIntervalsEndingAfter",
+                () -> bookingRepository.findIntervalsEndingAfter(itemId, waiting, now));
+        queries.put("BookingRepository.findIntervalsOverlapping",
+                () -> bookingRepository.findIntervalsOverlapping(itemId, waiting, now.minusDays(30), now));
+        queries.put("BookingRepository.findLastAndNextApprovedBookingIds",
+                () -> bookingRepository.findLastAndNextApprovedBookingIds(List.of(itemId), now));
+        queries.put("BookingRepository.findCurrentApprovedByItemIdIn",
+                () -> bookingRepository.findCurrentApprovedByItemIdIn(List.of(itemId), now));
+        queries.put("BookingRepository.findApprovedItemIdsByBookerId",
+                () -> bookingRepository.findApprovedItemIdsByBookerId(bookerId));
+        queries.put("BookingRepository.findAllWithBookerByIdIn",
+                () -> bookingRepository.findAllWithBookerByIdIn(List.of(bookingId)));
+        queries.put("BookingRepository.findAllWithItemForUpdateByIdIn",
+                () -> bookingRepository.findAllWithItemForUpdateByIdIn(List.of(bookingId)));
+        queries.put("BookingRepository.updateWaitingStatusByOwner",
+                () -> bookingRepository.updateWaitingStatusByOwner(List.of(bookingId), ownerId,
+                        BookingStatus.APPROVED));
+        queries.put("BookingRepository.streamAllByOwnerId", () -> {
+            try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+                bookings.forEach(b -> { });
+            }
+        });
+
+        queries.put("ItemRepository.findByOwnerIdOrderByIdAsc",
+                () -> itemRepository.findByOwnerIdOrderByIdAsc(ownerId));
+        queries.put("ItemRepository.existsByOwnerId",
+                () -> itemRepository.existsByOwnerId(ownerId));
+        queries.put("ItemRepository.findItemsByNameOrDescription",
+                () -> itemRepository.findItemsByNameOrDescription("вещь"));
+        queries.put("ItemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc",
+                () -> itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(itemId, PageRequest.of(0, 100)));
+        queries.put("ItemRepository.findAvailableByIdIn",
+                () -> itemRepository.findAvailableByIdIn(List.of(itemId)));
+        queries.put("ItemRepository.findAllByIdIn",
+                () -> itemRepository.findAllByIdIn(List.of(itemId)));
+
+        queries.put("CommentRepository.findAllByItemId",
+                () -> commentRepository.findAllByItemId((long) itemId));
+        queries.put("CommentRepository.findAllWithAuthorByItemIdIn",
+                () -> commentRepository.findAllWithAuthorByItemIdIn(List.of(itemId)));
+        queries.put("CommentRepository.findItemIdsByAuthorId",
+                () -> commentRepository.findItemIdsByAuthorId(bookerId));
+
+        queries.put("UserRepository.findByEmail",
+                () -> userRepository.findByEmail(booker.getEmail()));
+
+        queries.put("ItemSummaryRepository.findAllByItemIdIn",
+                () -> itemSummaryRepository.findAllByItemIdIn(List.of(itemId)));
+        queries.put("ItemSummaryRepository.findForUpdateByItemId",
+                () -> itemSummaryRepository.findForUpdateByItemId(itemId));
+        queries.put("ItemSummaryRepository.findForUpdateSkipLockedByItemIdIn",
+                () -> itemSummaryRepository.findForUpdateSkipLockedByItemIdIn(List.of(itemId)));
+        queries.put("ItemSummaryRepository.findStaleItemIds",
+                () -> itemSummaryRepository.findStaleItemIds(now, PageRequest.of(0, 500)));
+        queries.put("ItemSummaryRepository.markStaleByItemIdIn",
+                () -> itemSummaryRepository.markStaleByItemIdIn(List.of(itemId), now));
+
+        queries.put("OwnerVersionRepository.incrementItemsAndBookings",
+                () -> ownerVersionRepository.incrementItemsAndBookings(ownerId));
+        queries.put("OwnerVersionRepository.incrementItemsAndBookingsWithStaleAt",
+                () -> ownerVersionRepository.incrementItemsAndBookingsWithStaleAt(ownerId, now));
+        queries.put("OwnerVersionRepository.incrementItemsByItemIdIn",
+                () -> ownerVersionRepository.incrementItemsByItemIdIn(List.of(itemId)));
+        queries.put("OwnerVersionRepository.incrementItemsWithStaleAtByItemIdIn",
+                () -> ownerVersionRepository.incrementItemsWithStaleAtByItemIdIn(List.of(itemId), now));
+        queries.put("OwnerVersionRepository.recalculateItemsByItemIdIn",
+                () -> ownerVersionRepository.recalculateItemsByItemIdIn(List.of(itemId)));
+        queries.put("OwnerVersionRepository.incrementBookingsByOwnerIdIn",
+                () -> ownerVersionRepository.incrementBookingsByOwnerIdIn(List.of(ownerId)));
+        queries.put("OwnerVersionRepository.incrementBookingsByBookerId",
+                () -> ownerVersionRepository.incrementBookingsByBookerId(bookerId));
+        return queries;
+    }
+
+    /**
+     * Выполняет запрос в транзакции, которая затем откатывается, и возвращает отправленный в базу SQL.
+     */
+    private Set<String> capture(Runnable query) {
+        SqlStatementCounter.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+        } catch (RuntimeException e) {
+            SqlStatementCounter.stop();
+            throw e;
+        }
+        return SqlStatementCounter.stop().keySet();
+    }
+
+    /**
+     * План запроса в H2. Значения параметров на выбор индекса не влияют, поэтому все они равны null.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Не удалось получить план запроса: " + sql, e);
+            }
+        });
+    }
+}
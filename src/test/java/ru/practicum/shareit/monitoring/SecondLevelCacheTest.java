@@ -0,0 +1,130 @@
+package ru.practicum.shareit.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Вещь и пользователь, уже лежащие в кэше второго уровня, достаются при маппинге брони и комментария
+ * без запросов к базе: ленивые ссылки на них инициализируются из кэша.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheTest {
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    User owner;
+    User booker;
+    Item item;
+    Long bookingId;
+    Long commentId;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            owner = userRepository.save(User.builder().name("Владелец").email("cache-owner@mail.ru").build());
+            booker = userRepository.save(User.builder().name("Арендатор").email("cache-booker@mail.ru").build());
+            item = itemRepository.save(Item.builder()
+                    .name("Дрель")
+                    .description("Ударная дрель")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            bookingId = bookingRepository.save(Booking.builder()
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build()).getId();
+            commentId = commentRepository.save(Comment.builder()
+                    .text("Отличная дрель")
+                    .item(item)
+                    .author(booker)
+                    .created(now)
+                    .build()).getId();
+        });
+    }
+
+    @Test
+    void warmRegionsMapWithoutStatements() {
+        entityManagerFactory.getCache().evictAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.findById(owner.getId());
+            userRepository.findById(booker.getId());
+            itemRepository.findById((long) item.getId());
+        });
+
+        Map<String, Integer> statements = mapBookingAndComment();
+
+        assertEquals(Map.of(), statements);
+    }
+
+    /**
+     * Контроль: с пустым кэшем тот же маппинг догружает вещь и пользователя из базы.
+     */
+    @Test
+    void coldRegionsLoadFromDatabase() {
+        entityManagerFactory.getCache().evictAll();
+
+        Map<String, Integer> statements = mapBookingAndComment();
+
+        assertFalse(statements.isEmpty());
+    }
+
+    /**
+     * Бронь и комментарий читаются из базы до начала счёта; считаются только запросы маппинга.
+     */
+    private Map<String, Integer> mapBookingAndComment() {
+        return transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+            Comment comment = commentRepository.findById(commentId).orElseThrow();
+            SqlStatementCounter.start();
+            BookingDto bookingDto = BookingMapper.mapToBookingDto(booking);
+            CommentDto commentDto = CommentMapper.mapToCommentDto(comment);
+            Map<String, Integer> statements = SqlStatementCounter.stop();
+
+            assertEquals("Дрель", bookingDto.getItem().getName());
+            assertEquals("Арендатор", bookingDto.getBooker().getName());
+            assertEquals("Арендатор", commentDto.getAuthorName());
+            return statements;
+        });
+    }
+}
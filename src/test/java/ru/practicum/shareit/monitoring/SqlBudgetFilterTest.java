@@ -0,0 +1,57 @@
+package ru.practicum.shareit.monitoring;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlBudgetFilterTest {
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+    private final SqlBudgetFilter filter = new SqlBudgetFilter(10, 3, true, List.of("/items/import"));
+
+    @Test
+    void violationAfterCommittedResponseIsRecordedNotThrown() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), response,
+                respondAfter(5, "SELECT * FROM comment WHERE item_id = ?"));
+
+        assertTrue(response.isCommitted());
+        assertEquals("[]", response.getContentAsString());
+        SqlBudgetExceededException violation = assertThrows(SqlBudgetExceededException.class,
+                filter::assertNoViolations);
+        assertTrue(violation.getMessage().contains("GET /items выполнил 5 SQL-запросов"));
+        assertTrue(violation.getMessage().contains("5× SELECT * FROM comment WHERE item_id = ?"));
+        assertDoesNotThrow(filter::assertNoViolations);
+    }
+
+    @Test
+    void withinBudgetAndExcludedPathsRecordNothing() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(),
+                respondAfter(3, "SELECT * FROM item WHERE owner_id = ?"));
+        filter.doFilter(new MockHttpServletRequest("POST", "/items/import"), new MockHttpServletResponse(),
+                respondAfter(50, "INSERT INTO item VALUES (?)"));
+
+        assertDoesNotThrow(filter::assertNoViolations);
+    }
+
+    /**
+     * Цепочка, которая выполняет запросы и отправляет ответ до того, как фильтр проверит бюджет.
+     */
+    private FilterChain respondAfter(int statements, String sql) {
+        return (request, response) -> {
+            for (int i = 0; i < statements; i++) {
+                counter.inspect(sql);
+            }
+            response.getWriter().write("[]");
+            response.flushBuffer();
+        };
+    }
+}
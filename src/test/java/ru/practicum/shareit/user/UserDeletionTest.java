@@ -0,0 +1,129 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemSummaryUpdater;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSummaryRepository;
+import ru.practicum.shareit.monitoring.SqlBudgetFilter;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Удаление пользователя каскадом удаляет его брони и комментарии. Сводки чужих вещей, в которых они
+ * стояли, должны перестать их показывать, а старый ETag карточки — перестать совпадать.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserDeletionTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    ItemSummaryUpdater itemSummaryUpdater;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    SqlBudgetFilter sqlBudgetFilter;
+
+    @AfterEach
+    void withinSqlBudget() {
+        sqlBudgetFilter.assertNoViolations();
+    }
+
+    @Test
+    void deletedBookerDisappearsFromItemCardAndOldETagMisses() throws Exception {
+        long ownerId = createUser("delete-owner@mail.ru");
+        long bookerId = createUser("delete-booker@mail.ru");
+        int itemId = createItem(ownerId);
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.save(Booking.builder()
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .item(itemRepository.getReferenceById((long) itemId))
+                .booker(userRepository.getReferenceById(bookerId))
+                .status(BookingStatus.APPROVED)
+                .build()));
+        mockMvc.perform(json(post("/items/{id}/comment", itemId), bookerId, Map.of("text", "Отличная дрель")))
+                .andExpect(status().isOk());
+        transactionTemplate.executeWithoutResult(status ->
+                itemSummaryRepository.markStaleByItemIdIn(List.of(itemId), now));
+        itemSummaryUpdater.refreshStale();
+
+        String etag = mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(1)))
+                .andExpect(jsonPath("$.lastBooking.booker.id").value(bookerId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(delete("/users/{id}", bookerId)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{id}", itemId)
+                        .header("X-Sharer-User-Id", ownerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(0)))
+                .andExpect(jsonPath("$.commentCount").value(0))
+                .andExpect(jsonPath("$.lastBooking").value(nullValue()));
+    }
+
+    private long createUser(String email) throws Exception {
+        String body = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", email, "email", email))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private int createItem(long ownerId) throws Exception {
+        Map<String, Object> item = Map.of("name", "Дрель", "description", "Ударная дрель", "available", true);
+        String body = mockMvc.perform(json(post("/items"), ownerId, item))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asInt();
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, long userId, Object body)
+            throws Exception {
+        return request.header("X-Sharer-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+}